@@ -0,0 +1,111 @@
+package benchmark;
+
+import agent.Action;
+import agent.ActionResult;
+import agent.ActionType;
+import agent.Agent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Simulation;
+import utilities.eventlog.EventSink;
+import world.Place;
+
+/**
+ * Measures the work of a single agent: a whole round, in which the agent plays
+ * his turn with Agent.go(), updating what he sees and running his moves.
+ *
+ * The rounds are played on a game that is restarted with the next seed
+ * whenever it ends, so the agents go through every stage of a game and the
+ * clients are refilled every ten rounds as usual.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentBenchmark {
+
+    /**
+     * Starts the first game.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _seed = Games.SEED;
+        _result = new ActionResult();
+        newGame();
+    }
+
+    /**
+     * Starts a game that reports no events.
+     */
+    private void newGame() {
+        _simulation = new Simulation(_seed++, Games.map(map), Games.fleet(map), false);
+        _simulation.setEventSink(EventSink.NONE);
+    }
+
+    /**
+     * @return the agent that played the round
+     */
+    @Benchmark
+    public Agent round() {
+        if (_simulation.isFinished()) {
+            newGame();
+        }
+        return _simulation.step();
+    }
+
+    /**
+     * @return the places the agent sees
+     */
+    @Benchmark
+    public List<Place> updateVisiblePlaces() {
+        final Agent agent = _simulation.getAgents().get(0);
+        agent.getBelief().updateVisiblePlaces();
+        return agent.getBelief().getVisiblePlaces();
+    }
+
+    /**
+     * Runs every move from the place of the first agent without taking him
+     * there. The actions are shared and the result is filled in, so the GC
+     * profiler should report no allocations.
+     *
+     * @return the total cost of the moves
+     */
+    @Benchmark
+    public int move() {
+        final Agent agent = _simulation.getAgents().get(0);
+        final Place place = agent.getBelief().getCurrentPlace();
+        int cost = 0;
+        for (Action action : MOVES) {
+            cost += action.run(agent, place, _result).getTotalCost();
+        }
+        return cost;
+    }
+
+    @Param({Games.DEFAULT_MAP, "60x60"})
+    public String map;
+
+    private long _seed;
+    private Simulation _simulation;
+    private ActionResult _result;
+
+    private static final Action[] MOVES = {
+        Action.of(ActionType.UP),
+        Action.of(ActionType.DOWN),
+        Action.of(ActionType.LEFT),
+        Action.of(ActionType.RIGHT)
+    };
+}
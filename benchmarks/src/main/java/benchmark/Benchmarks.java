@@ -0,0 +1,46 @@
+package benchmark;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so next to the time of
+ * every benchmark the bytes it allocates per operation and the collections it
+ * causes are reported.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar [JMH options]
+ *
+ * Any JMH option can be given, for example a regular expression selecting the
+ * benchmarks to run, -p map=60x60 to run on a single map or -rf json -rff
+ * baseline.json to keep the results to compare later changes against.
+ */
+public class Benchmarks {
+
+    /**
+     * @param args the JMH command line options
+     * @throws CommandLineOptionException if the options could not be parsed
+     * @throws IOException if the help could not be shown
+     * @throws RunnerException if a benchmark failed
+     */
+    public static void main(String args[]) throws CommandLineOptionException, IOException, RunnerException {
+        final CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+        if (options.shouldList()) {
+            new Runner(options).list();
+            return;
+        }
+
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
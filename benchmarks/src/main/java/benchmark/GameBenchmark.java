@@ -0,0 +1,83 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.Simulation;
+import utilities.eventlog.EventSink;
+
+/**
+ * Measures playing whole games, from creating the world to the end of the last
+ * of the 100 rounds per agent, and a single turn of a parallel game.
+ *
+ * Every game is played with the next seed, so the measurement covers many
+ * different games instead of replaying the same one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * Starts counting the seeds of the games.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _seed = Games.SEED;
+        _simulation = null;
+    }
+
+    /**
+     * @param parallel true if the agents decide their moves in parallel
+     * @return a new game that reports no events
+     */
+    private Simulation newGame(final boolean parallel) {
+        final Simulation simulation = new Simulation(_seed++, Games.map(map), Games.fleet(map), parallel);
+        simulation.setEventSink(EventSink.NONE);
+        return simulation;
+    }
+
+    /**
+     * @return the game
+     */
+    @Benchmark
+    public Simulation game() {
+        final Simulation simulation = newGame(false);
+        simulation.run();
+        return simulation;
+    }
+
+    /**
+     * Plays a turn of a parallel game, in which every agent decides on the
+     * common fork-join pool and then commits his round.
+     *
+     * @return the game
+     */
+    @Benchmark
+    public Simulation parallelTurn() {
+        if (_simulation == null || _simulation.isFinished()) {
+            _simulation = newGame(true);
+        }
+        _simulation.step();
+        return _simulation;
+    }
+
+    @Param({Games.DEFAULT_MAP, "20x20", "60x60"})
+    public String map;
+
+    private long _seed;
+    private Simulation _simulation;
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import java.util.Random;
+import simulation.Fleet;
+import world.WorldMap;
+
+/**
+ * The maps and fleets the benchmarks are played with.
+ *
+ * The maps are named like the maps of the command line tools: default for the
+ * original 5x5 world and WIDTHxHEIGHT for a map generated with SEED, so that
+ * every run of a benchmark plays on the same world.
+ */
+final class Games {
+
+    private Games() {
+    }
+
+    /**
+     * @param map Either default or WIDTHxHEIGHT
+     * @return the map
+     */
+    static WorldMap map(final String map) {
+        if (map.equals(DEFAULT_MAP)) {
+            return WorldMap.defaultMap();
+        }
+        final String[] size = map.split("x");
+        if (size.length != 2) {
+            throw new IllegalArgumentException("Invalid value for map: " + map);
+        }
+        return WorldMap.generate(Integer.parseInt(size[0]), Integer.parseInt(size[1]), new Random(SEED));
+    }
+
+    /**
+     * The original map is played by the random roosters and donkeys of the
+     * original game. The generated maps are played by two equal teams with an
+     * agent for every PLACES_PER_AGENT places, so the larger the map the
+     * larger the fleet.
+     *
+     * @param map Either default or WIDTHxHEIGHT
+     * @return the teams of the map or null for the original teams
+     */
+    static Fleet fleet(final String map) {
+        if (map.equals(DEFAULT_MAP)) {
+            return null;
+        }
+        final WorldMap worldMap = map(map);
+        final int agents = worldMap.getWidth() * worldMap.getHeight() / PLACES_PER_AGENT;
+        return Fleet.uniform(2, Math.max(1, agents / 2));
+    }
+
+    /**
+     * The name of the original 5x5 map.
+     */
+    static final String DEFAULT_MAP = "default";
+
+    /**
+     * The seed of the generated maps and of the games.
+     */
+    static final long SEED = 42;
+
+    /**
+     * The number of places per agent on the generated maps.
+     */
+    static final int PLACES_PER_AGENT = 36;
+}
@@ -0,0 +1,164 @@
+package benchmark;
+
+import agent.Agent;
+import agent.AgentMessage;
+import agent.MessageType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the mailboxes of thousands of agents under contention, the way a
+ * parallel game uses them: in every operation all the agents post the
+ * messages of a turn at the same time on the common fork-join pool and, once
+ * they all have, every agent takes the messages of his mailbox, again at the
+ * same time. The synchronizedLists benchmark does the same with a list per
+ * agent guarded by its lock, which is what the mailboxes replaced.
+ *
+ * Every agent sends MESSAGES messages per turn, about the most an agent of a
+ * game sends to the others, to random agents or, on the hotspot, all of them
+ * to the first agent. The messages are made once and posted again every turn,
+ * so an operation allocates only what the parallel streams do, and every
+ * operation checks that the agents took exactly the messages posted: a
+ * mailbox that lost messages or held them back beyond the turn fails the
+ * benchmark instead of growing.
+ *
+ * The messages all carry the same round, so taking them measures the swap of
+ * the mailbox and the pass over its messages but not putting messages of
+ * different rounds in order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagingBenchmark {
+
+    /**
+     * Creates the agents, none of which plays a game, and the messages they
+     * send every turn.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SplittableRandom rand = new SplittableRandom(Games.SEED);
+        _agents = new Agent[agents];
+        _inboxes = new ArrayList<>(agents);
+        _read = new ArrayList<>(agents);
+        for (int i = 0; i < agents; i++) {
+            _agents[i] = new Agent("R", i + 1, rand.split());
+            _inboxes.add(new ArrayList<>());
+            _read.add(new ArrayList<>());
+        }
+        _outboxes = new AgentMessage[agents][MESSAGES];
+        for (int i = 0; i < agents; i++) {
+            for (int j = 0; j < MESSAGES; j++) {
+                final Agent recipient = hotspot ? _agents[0] : _agents[rand.nextInt(agents)];
+                _outboxes[i][j] = new AgentMessage(_agents[i], recipient, MessageType.ASSIST_IN_BLOCKING);
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages taken from the mailboxes
+     */
+    @Benchmark
+    public int mailboxes() {
+        IntStream.range(0, agents).parallel().forEach(this::post);
+        return check(IntStream.range(0, agents).parallel().map(this::drain).sum());
+    }
+
+    /**
+     * @return the number of messages taken from the lists
+     */
+    @Benchmark
+    public int synchronizedLists() {
+        IntStream.range(0, agents).parallel().forEach(this::add);
+        return check(IntStream.range(0, agents).parallel().map(this::take).sum());
+    }
+
+    /**
+     * Posts the messages of an agent to the mailboxes of their recipients.
+     */
+    private void post(final int sender) {
+        for (AgentMessage message : _outboxes[sender]) {
+            message.getRecipient().addMessage(message);
+        }
+    }
+
+    /**
+     * @return the number of messages taken from the mailbox of the agent
+     */
+    private int drain(final int agent) {
+        final List<AgentMessage> read = _read.get(agent);
+        read.clear();
+        return _agents[agent].getMailbox().drainTo(read);
+    }
+
+    /**
+     * Adds the messages of an agent to the lists of their recipients.
+     */
+    private void add(final int sender) {
+        for (AgentMessage message : _outboxes[sender]) {
+            final List<AgentMessage> inbox = _inboxes.get(message.getRecipient().getId() - 1);
+            synchronized (inbox) {
+                inbox.add(message);
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages taken from the list of the agent
+     */
+    private int take(final int agent) {
+        final List<AgentMessage> inbox = _inboxes.get(agent);
+        final List<AgentMessage> read = _read.get(agent);
+        read.clear();
+        synchronized (inbox) {
+            read.addAll(inbox);
+            inbox.clear();
+        }
+        return read.size();
+    }
+
+    /**
+     * @param count The number of messages taken in a turn
+     * @return the number of messages taken
+     */
+    private int check(final int count) {
+        if (count != agents * MESSAGES) {
+            throw new IllegalStateException("Invalid value for count: " + count);
+        }
+        return count;
+    }
+
+    @Param({"1000", "10000"})
+    public int agents;
+
+    @Param({"false", "true"})
+    public boolean hotspot;
+
+    private Agent[] _agents;
+    private AgentMessage[][] _outboxes;
+    private List<List<AgentMessage>> _inboxes;
+    private List<List<AgentMessage>> _read;
+
+    /**
+     * The number of messages every agent sends in a turn.
+     */
+    private static final int MESSAGES = 4;
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import world.PathFinder;
+import world.PathTable;
+import world.Place;
+import world.World;
+
+/**
+ * Measures finding a path between two random places of a world.
+ *
+ * The search is the breadth first search the agents run when an opponent is in
+ * sight (Agent.breadthFirstSearch hands it to the path finder of its thread),
+ * the lookup follows the path table the agents use the rest of the time. On
+ * the larger maps the table only keeps the rows of some destinations, so the
+ * lookups of the other pairs measure finding out that they are not covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFindingBenchmark {
+
+    /**
+     * Creates the world and the pairs of places to find paths between.
+     */
+    @Setup
+    public void setUp() {
+        final SplittableRandom rand = new SplittableRandom(Games.SEED);
+        _world = new World(Games.map(map), rand);
+        _pathFinder = PathFinder.get(_world);
+        _pathTable = _world.getPathTable();
+
+        final List<Place> places = _world.getPlaces();
+        _starts = new Place[PAIRS];
+        _ends = new Place[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            _starts[i] = places.get(rand.nextInt(places.size()));
+            _ends[i] = places.get(rand.nextInt(places.size()));
+        }
+        _pair = 0;
+    }
+
+    /**
+     * @return the number of places in the path
+     */
+    @Benchmark
+    public int search() {
+        final int pair = nextPair();
+        _pathFinder.search(_starts[pair], _ends[pair], null);
+        return _pathFinder.getPathLength();
+    }
+
+    /**
+     * @return the last place of the path
+     */
+    @Benchmark
+    public Place lookup() {
+        final int pair = nextPair();
+        final Place end = _ends[pair];
+        if (_pathTable.getDistance(_starts[pair], end) < 0) {
+            return null;
+        }
+        Place place = _starts[pair];
+        while (!place.equals(end)) {
+            place = _pathTable.getNextHop(place, end);
+        }
+        return place;
+    }
+
+    private int nextPair() {
+        _pair = (_pair + 1) & (PAIRS - 1);
+        return _pair;
+    }
+
+    @Param({Games.DEFAULT_MAP, "60x60", "200x200"})
+    public String map;
+
+    private World _world;
+    private PathFinder _pathFinder;
+    private PathTable _pathTable;
+    private Place[] _starts;
+    private Place[] _ends;
+    private int _pair;
+
+    /**
+     * The number of pairs of places searched in turn, a power of two.
+     */
+    private static final int PAIRS = 1024;
+}
@@ -0,0 +1,176 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import world.PathFinder;
+import world.PathTable;
+import world.Place;
+import world.World;
+import world.WorldSnapshot;
+
+/**
+ * Checks that agents planning at the same time on one world find the same
+ * paths as when they plan one after the other.
+ *
+ * Usage: SearchStressTest [map] [searches] [threads] [seed]
+ *
+ * where map is either default or WIDTHxHEIGHT, like the maps of the
+ * benchmarks (60x40 if not given). Random searches are made on a single
+ * thread first, half of them around a random tenth of the places that are
+ * blocked, and the paths that are not blocked are checked against the
+ * shortest paths of the world. Then all the threads make all the searches at
+ * the same time on the same world, every thread starting from a different
+ * search, and every path is compared with the one found on the single thread.
+ * The test fails with the first exception a search threw, if any, and exits
+ * with 1 if any path is wrong or the threads do not finish in TIMEOUT_MILLIS.
+ *
+ * It is run from the benchmarks jar:
+ *
+ * java -cp benchmarks/target/benchmarks.jar benchmark.SearchStressTest
+ */
+public class SearchStressTest {
+
+    /**
+     * @param args the map, the number of searches, the number of threads and
+     * the seed
+     * @throws InterruptedException if the test was interrupted
+     */
+    public static void main(String args[]) throws InterruptedException {
+        final String map = args.length > 0 ? args[0] : "60x40";
+        final int searches = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        final long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        final WorldSnapshot snapshot = WorldSnapshot.of(Games.map(map));
+        final SplittableRandom rand = new SplittableRandom(seed);
+        final World world = new World(snapshot, rand.split());
+        final List<Place> places = world.getPlaces();
+
+        final boolean[] blockedIds = new boolean[places.size()];
+        for (int i = 0; i < blockedIds.length; i++) {
+            blockedIds[i] = rand.nextInt(10) == 0;
+        }
+        final Predicate<Place> blocked = (place) -> blockedIds[place.getId()];
+
+        final Place[] starts = new Place[searches];
+        final Place[] ends = new Place[searches];
+        final boolean[] isBlocked = new boolean[searches];
+        for (int i = 0; i < searches; i++) {
+            starts[i] = places.get(rand.nextInt(places.size()));
+            ends[i] = places.get(rand.nextInt(places.size()));
+            isBlocked[i] = rand.nextBoolean();
+        }
+
+        final int[][] expected = new int[searches][];
+        int wrong = 0;
+        for (int i = 0; i < searches; i++) {
+            expected[i] = search(PathFinder.get(world), starts[i], ends[i], isBlocked[i] ? blocked : null);
+            if (!isBlocked[i] && !isShortest(world, starts[i], ends[i], expected[i])) {
+                wrong++;
+            }
+        }
+        System.out.println(Integer.toString(searches) + " searches on 1 thread: "
+                + Integer.toString(wrong) + " not the shortest path");
+
+        final AtomicInteger mismatches = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int first = (int) ((long) searches * t / threads);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    for (int j = 0; j < searches; j++) {
+                        final int i = (first + j) % searches;
+                        final int[] path = search(PathFinder.get(world), starts[i], ends[i],
+                                isBlocked[i] ? blocked : null);
+                        if (!Arrays.equals(path, expected[i])) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                } catch (RuntimeException ex) {
+                    failures.incrementAndGet();
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            workers[t].setDaemon(true);
+            workers[t].start();
+        }
+        start.countDown();
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        int unfinished = 0;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            if (worker.isAlive()) {
+                unfinished++;
+            }
+        }
+        System.out.println(Integer.toString(searches) + " searches on " + Integer.toString(threads) + " threads: "
+                + Integer.toString(mismatches.get()) + " paths differ from the single thread, "
+                + Integer.toString(failures.get()) + " threads failed, "
+                + Integer.toString(unfinished) + " threads did not finish");
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (wrong > 0 || mismatches.get() > 0 || unfinished > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the ids of the places of the path found or null if none was
+     */
+    private static int[] search(final PathFinder pathFinder, final Place start, final Place end,
+            final Predicate<Place> blocked) {
+        if (!pathFinder.search(start, end, blocked)) {
+            return null;
+        }
+        final int[] path = new int[pathFinder.getPathLength()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = pathFinder.getPathId(i);
+        }
+        return path;
+    }
+
+    /**
+     * @return true if the path is a walk from start to end over traversable
+     * places that is as long as the shortest path of the world, false if not
+     */
+    private static boolean isShortest(final World world, final Place start, final Place end, final int[] path) {
+        final int distance = world.getPathTable().getDistance(start, end);
+        if (distance == PathTable.NOT_COVERED) {
+            return path != null;
+        }
+        if (path == null) {
+            return distance == PathTable.UNREACHABLE;
+        }
+        if (path.length - 1 != distance || path[0] != start.getId() || path[path.length - 1] != end.getId()) {
+            return false;
+        }
+        for (int i = 1; i < path.length; i++) {
+            if (!world.getPlaces().get(path[i]).isIn(world.getPlaces().get(path[i - 1]).getTraversablePlaces())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * How long the threads may take to make all their searches, in
+     * milliseconds.
+     */
+    private static final long TIMEOUT_MILLIS = 300000;
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import world.Client;
+import world.Place;
+import world.World;
+import world.WorldMap;
+import world.WorldSnapshot;
+
+/**
+ * Measures filling a world with clients, which a game does every ten rounds,
+ * and building a world, whose bytes allocated per operation reported by the GC
+ * profiler are about the memory a world of that size takes.
+ *
+ * Before every refill the clients of the world are removed, so every refill
+ * puts as many clients in the world as the map allows. Removing them is not
+ * measured but it still costs a timestamp per refill, which is negligible next
+ * to the refill on the generated maps but not quite on the default one.
+ *
+ * A refill of a 200x200 map takes well over a minute, so it is left out by
+ * default and can be measured with -p map=200x200.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+    /**
+     * Creates the world.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _map = Games.map(map);
+        _snapshot = WorldSnapshot.of(_map);
+        _world = new World(_map, new SplittableRandom(Games.SEED));
+    }
+
+    /**
+     * Removes every client from the world.
+     */
+    @Setup(Level.Invocation)
+    public void removeClients() {
+        for (Place place : _world.getPlaces()) {
+            for (Client client : new ArrayList<>(place.getClientList())) {
+                place.removeClient(client);
+            }
+        }
+    }
+
+    /**
+     * @return the world
+     */
+    @Benchmark
+    public World setRandomClients() {
+        _world.setRandomClients();
+        return _world;
+    }
+
+    /**
+     * @return a new world of the map
+     */
+    @Benchmark
+    public World newWorld() {
+        return new World(_map, new SplittableRandom(Games.SEED));
+    }
+
+    /**
+     * @return a new world over the snapshot of the map, which is built once
+     */
+    @Benchmark
+    public World newWorldFromSnapshot() {
+        return new World(_snapshot, new SplittableRandom(Games.SEED));
+    }
+
+    @Param({Games.DEFAULT_MAP, "20x20", "60x60"})
+    public String map;
+
+    private WorldMap _map;
+    private WorldSnapshot _snapshot;
+    private World _world;
+}
@@ -1,6 +1,6 @@
 package agent;
 
-import utilities.generalutils.Coordinates;
+import world.Client;
 import world.Place;
 
 /**
@@ -8,62 +8,64 @@ import world.Place;
  * action is executed an ActionResult object is returned indicating if the
  * action was successful and the effect it had on the agent's belief.
  *
+ * There is a single Action of every type, shared by all the agents, which
+ * keeps no state: the agent that runs the action and the result to fill in are
+ * given to it. Running an action therefore allocates nothing.
+ *
  * @author Kanakari Maria
  * @author Kanellis Dimitris
  */
 public class Action {
 
     /**
-     * Each Action has a name and a base cost.
+     * Each Action has a type and a base cost.
      *
-     * @param name The name of the action which determines what kind of action
+     * @param type The type of the action which determines what kind of action
      * it will be
-     * @param agent The agent to perform the action on
      */
-    public Action(final String name, final Agent agent) {
-        if (!name.equals(EMBARK_NAME)
-                && !name.equals(DISEMBARK_NAME)
-                && !name.equals(UP_NAME)
-                && !name.equals(DOWN_NAME)
-                && !name.equals(LEFT_NAME)
-                && !name.equals(RIGHT_NAME)) {
-            throw new IllegalArgumentException("Invalid value for actionName: "
-                    + name);
+    private Action(final ActionType type) {
+        _type = type;
+    }
+
+    /**
+     * @param type The type of the action
+     * @return the one Action of that type
+     */
+    public static Action of(final ActionType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid value for type: "
+                    + type);
         }
-        _name = name;
-        _agent = agent;
+        return ACTIONS[type.ordinal()];
     }
 
     /**
-     * @return the name of the Action
+     * @return the type of the Action
      */
-    public String getName() {
-        return _name;
+    public ActionType getType() {
+        return _type;
     }
 
     /**
-     * Executes the correct action based on its name.
+     * Executes the correct action based on its type. A move goes to the
+     * neighbouring place its type points to.
      *
+     * The result is written in to the given one, which the agent keeps for all
+     * his actions, so it only holds until the agent runs his next action.
+     *
+     * @param agent The agent to perform the action on
      * @param currentPlace The place from which the action will be executed
+     * @param result The result to fill in
      * @return The result of the action
      */
-    public ActionResult run(final Place currentPlace) {
-        switch (_name) {
-            case EMBARK_NAME:
-                return embark(currentPlace);
-            case DISEMBARK_NAME:
-                return disembark(currentPlace);
-            case UP_NAME:
-                return goUp(currentPlace);
-            case DOWN_NAME:
-                return goDown(currentPlace);
-            case LEFT_NAME:
-                return goLeft(currentPlace);
-            case RIGHT_NAME:
-                return goRight(currentPlace);
+    public ActionResult run(final Agent agent, final Place currentPlace, final ActionResult result) {
+        switch (_type) {
+            case EMBARK:
+                return embark(agent, currentPlace, result);
+            case DISEMBARK:
+                return disembark(agent, currentPlace, result);
             default:
-                throw new IllegalArgumentException("Invalid type for actionName: "
-                        + _name);
+                return goTo(agent, currentPlace, result);
         }
     }
 
@@ -77,16 +79,19 @@ public class Action {
      * Otherwise the client is added to the agent's clientOnboard list and is then
      * removed from the place.
      *
+     * @param agent The agent to perform the action on
      * @param currentPlace The place from which the action will be executed
+     * @param result The result to fill in
      * @return The result of the action
      */
-    private ActionResult embark(final Place currentPlace) {
+    private static ActionResult embark(final Agent agent, final Place currentPlace, final ActionResult result) {
         if (currentPlace.getFirstAvailableClient() == null) {
-            return new ActionResult(false, BASE_COST + PENALTY_COST, currentPlace);
+            return result.set(false, BASE_COST + PENALTY_COST, currentPlace, null);
         }
-        _agent.getBelief().addClientOnboard(currentPlace.getFirstAvailableClient());
+        final Client client = currentPlace.getFirstAvailableClient();
+        agent.getBelief().addClientOnboard(client);
         currentPlace.removeClient(currentPlace.getClientList().get(0));
-        return new ActionResult(true, BASE_COST, currentPlace);
+        return result.set(true, BASE_COST, currentPlace, client);
     }
 
     /**
@@ -99,140 +104,48 @@ public class Action {
      * Otherwise the client is removed from the agent's clientOnboard list, is
      * then removed from the world and the agent gets a reward of BASE_COST + REWARD_COST.
      *
+     * @param agent The agent to perform the action on
      * @param currentPlace The place from which the action will be executed
+     * @param result The result to fill in
      * @return The result of the action
      */
-    private ActionResult disembark(final Place currentPlace) {
-        if (!currentPlace.equals(_agent.getBelief().getClientsOnboard().get(0).getDestination())) {
-            return new ActionResult(false, BASE_COST + PENALTY_COST, currentPlace);
-        }
-        currentPlace.removeClient(_agent.getBelief().getClientsOnboard().get(0));
-        _agent.getBelief().removeClientOnboard(_agent.getBelief().getClientsOnboard().get(0));
-        return new ActionResult(true, BASE_COST + REWARD_COST, currentPlace);
-    }
-
-    /**
-     * Executes up in order to move up.
-     * 
-     * If the up action is making the agent go to a place that is out of bounds
-     * of the world or on a place that has an opposing agent then the action fails
-     * with a total cost of zero and the agent stays at the same place.
-     * 
-     * Otherwise the agent moves to the next location.
-     *
-     * @param currentPlace The place from which the action will be executed
-     * @return The result of the action
-     */
-    private ActionResult goUp(final Place currentPlace) {
-        final int newX = currentPlace.getCoords().getX() - 1;
-        if (newX < 0) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        final Place nextPlace = new Place(new Coordinates(newX, currentPlace.getCoords().getY())).getPlaceFromCollection(_agent.getPlaces());
-        if (nextPlace.hasOpposingAgent(_agent)) {
-            return new ActionResult(false, 0, currentPlace);
+    private static ActionResult disembark(final Agent agent, final Place currentPlace, final ActionResult result) {
+        if (!currentPlace.equals(agent.getBelief().getClientsOnboard().get(0).getDestination())) {
+            return result.set(false, BASE_COST + PENALTY_COST, currentPlace, null);
         }
-
-        return new ActionResult(true, BASE_COST, nextPlace);
+        final Client client = agent.getBelief().getClientsOnboard().get(0);
+        currentPlace.removeClient(client);
+        agent.getBelief().removeClientOnboard(client);
+        return result.set(true, BASE_COST + REWARD_COST, currentPlace, client);
     }
 
     /**
-     * Executes up in order to move down.
-     * 
-     * If the down action is making the agent go to a place that is out of bounds
-     * of the world or on a place that has an opposing agent then the action fails
-     * with a total cost of zero and the agent stays at the same place.
-     * 
-     * Otherwise the agent moves to the next location.
+     * Moves the agent to the neighbouring place the type of the action points
+     * to.
      *
-     * @param currentPlace The place from which the action will be executed
-     * @return The result of the action
-     */
-    private ActionResult goDown(final Place currentPlace) {
-        final int newX = currentPlace.getCoords().getX() + 1;
-        if (newX > 4) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        final Place nextPlace = new Place(new Coordinates(newX, currentPlace.getCoords().getY())).getPlaceFromCollection(_agent.getPlaces());
-        if (nextPlace.hasOpposingAgent(_agent)) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        return new ActionResult(true, BASE_COST, nextPlace);
-    }
-
-    /**
-     * Executes left in order to move left.
-     * 
-     * If the left action is making the agent go to a place that is out of bounds
-     * of the world or on a place that has an opposing agent or on a place that 
-     * has a wall in between then the action fails with a total cost of zero and
-     * the agent stays at the same place.
-     * 
-     * Otherwise the agent moves to the next location.
+     * If the move is making the agent go to a place that is out of bounds of
+     * the world or on a place that has an opposing agent or on a place that has
+     * a wall in between then the action fails with a total cost of zero and the
+     * agent stays at the same place.
      *
-     * @param currentPlace The place from which the action will be executed
-     * @return The result of the action
-     */
-    private ActionResult goLeft(final Place currentPlace) {
-        final int newY = currentPlace.getCoords().getY() - 1;
-        if (newY < 0) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        Place nextPlace = new Place(new Coordinates(currentPlace.getCoords().getX(), newY)).getPlaceFromCollection(_agent.getPlaces());
-        if (!isTraversable(currentPlace, nextPlace) || nextPlace.hasOpposingAgent(_agent)) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        return new ActionResult(true, BASE_COST, nextPlace);
-    }
-
-    /**
-     * Executes right in order to move right.
-     * 
-     * If the right action is making the agent go to a place that is out of bounds
-     * of the world or on a place that has an opposing agent or on a place that 
-     * has a wall in between then the action fails with a total cost of zero and
-     * the agent stays at the same place.
-     * 
-     * Otherwise the agent moves to the next location.
+     * The next place is looked up in the grid of the world, which knows the
+     * walls around the current place, so nothing is searched or allocated.
      *
+     * @param agent The agent to perform the action on
      * @param currentPlace The place from which the action will be executed
+     * @param result The result to fill in
      * @return The result of the action
      */
-    private ActionResult goRight(final Place currentPlace) {
-        final int newY = currentPlace.getCoords().getY() + 1;
-        if (newY > 4) {
-            return new ActionResult(false, 0, currentPlace);
-        }
-
-        Place nextPlace = new Place(new Coordinates(currentPlace.getCoords().getX(), newY)).getPlaceFromCollection(_agent.getPlaces());
-        if (!isTraversable(currentPlace, nextPlace) || nextPlace.hasOpposingAgent(_agent)) {
-            return new ActionResult(false, 0, currentPlace);
+    private ActionResult goTo(final Agent agent, final Place currentPlace, final ActionResult result) {
+        final Place nextPlace = currentPlace.getTraversablePlace(_type.getRowOffset(), _type.getColumnOffset());
+        if (nextPlace == null || nextPlace.hasOpposingAgent(agent)) {
+            return result.set(false, 0, currentPlace, null);
         }
 
-        return new ActionResult(true, BASE_COST, nextPlace);
+        return result.set(true, BASE_COST, nextPlace, null);
     }
 
-    /**
-     * Checks if a traversable path exists from currentPlace to nextPlace
-     *
-     * @param currentPlace The current Place
-     * @param nextPlace The next Place to go
-     * @return True if there is no wall, false if not
-     */
-    private boolean isTraversable(final Place currentPlace, final Place nextPlace) {
-        return currentPlace
-                .getNonTraversablePlaces()
-                .stream()
-                .noneMatch((nonTraversablePlace) -> (nonTraversablePlace.equals(nextPlace)));
-    }
-
-    private final String _name;
-    private Agent _agent;
+    private final ActionType _type;
 
     /**
      * Tuning parameters for the base cost of each action, the penalty cost if
@@ -244,12 +157,13 @@ public class Action {
     private static final int REWARD_COST = 20;
 
     /**
-     * Naming parameters for the names of the different actions.
+     * The one Action of every type, in the order of the types.
      */
-    public final static String EMBARK_NAME = "EMBARK";
-    public final static String DISEMBARK_NAME = "DISEMBARK";
-    public final static String UP_NAME = "UP";
-    public final static String DOWN_NAME = "DOWN";
-    public final static String LEFT_NAME = "LEFT";
-    public final static String RIGHT_NAME = "RIGHT";
+    private static final Action[] ACTIONS = new Action[ActionType.values().length];
+
+    static {
+        for (ActionType type : ActionType.values()) {
+            ACTIONS[type.ordinal()] = new Action(type);
+        }
+    }
 }
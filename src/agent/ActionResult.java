@@ -1,16 +1,28 @@
 package agent;
 
+import world.Client;
 import world.Place;
 
 /**
  * This class is used to describe the action results that an action can have.
  * ActionResult is a product produced from executing an Action.
  *
+ * Every agent keeps a single ActionResult that each of his actions fills in,
+ * so a result only holds until the agent runs his next action and whoever
+ * wants to keep it has to copy what it needs.
+ *
  * @author Kanakari Maria
  * @author Kanellis Dimitris
  */
 public class ActionResult {
 
+    /**
+     * An empty ActionResult, to be filled in by the actions of an agent.
+     */
+    public ActionResult() {
+        this(false, 0, null, null);
+    }
+
     /**
      * Initialises an ActionResult properties
      *
@@ -21,9 +33,40 @@ public class ActionResult {
      * completed
      */
     public ActionResult(final boolean succeeded, final int totalCost, final Place nextPlace) {
+        this(succeeded, totalCost, nextPlace, null);
+    }
+
+    /**
+     * Works exactly like #ActionResult(boolean, int, world.Place) except this
+     * constructor is used for the embark and disembark actions, which also
+     * tell the client that was embarked or disembarked.
+     *
+     * @param client The client that was embarked or disembarked
+     * @see #ActionResult(boolean, int, world.Place)
+     */
+    public ActionResult(final boolean succeeded, final int totalCost, final Place nextPlace, final Client client) {
         _succeeded = succeeded;
         _totalCost = totalCost;
         _nextPlace = nextPlace;
+        _client = client;
+    }
+
+    /**
+     * Fills in the result of an action.
+     *
+     * @param succeeded True if Action was executed successfully, false if not
+     * @param totalCost Total cost of the Action
+     * @param nextPlace The place the Agent will go after the Action is
+     * completed
+     * @param client The client that was embarked or disembarked or null
+     * @return this result
+     */
+    ActionResult set(final boolean succeeded, final int totalCost, final Place nextPlace, final Client client) {
+        _succeeded = succeeded;
+        _totalCost = totalCost;
+        _nextPlace = nextPlace;
+        _client = client;
+        return this;
     }
 
     /**
@@ -48,7 +91,16 @@ public class ActionResult {
         return _nextPlace;
     }
 
-    private final boolean _succeeded;
-    private final int _totalCost;
-    private final Place _nextPlace;
+    /**
+     * @return the client that was embarked or disembarked or null if the
+     * action did not embark or disembark a client
+     */
+    public Client getClient() {
+        return _client;
+    }
+
+    private boolean _succeeded;
+    private int _totalCost;
+    private Place _nextPlace;
+    private Client _client;
 }
@@ -0,0 +1,86 @@
+package agent;
+
+/**
+ * The kinds of actions an agent can take.
+ *
+ * Every move knows the row and the column it takes the agent to relative to
+ * his current place, so the moves are carried out by looking them up instead
+ * of telling them apart.
+ */
+public enum ActionType {
+
+    /**
+     * Loads the first available client of the current place.
+     */
+    EMBARK(0, 0),
+    /**
+     * Unloads the client onboard at his destination.
+     */
+    DISEMBARK(0, 0),
+    /**
+     * Moves to the place above.
+     */
+    UP(-1, 0),
+    /**
+     * Moves to the place below.
+     */
+    DOWN(1, 0),
+    /**
+     * Moves to the place on the left.
+     */
+    LEFT(0, -1),
+    /**
+     * Moves to the place on the right.
+     */
+    RIGHT(0, 1);
+
+    /**
+     * @param rowOffset The rows the action moves the agent by
+     * @param columnOffset The columns the action moves the agent by
+     */
+    ActionType(final int rowOffset, final int columnOffset) {
+        _rowOffset = rowOffset;
+        _columnOffset = columnOffset;
+    }
+
+    /**
+     * @return true if the action moves the agent to a neighbouring place,
+     * false if not
+     */
+    public boolean isMove() {
+        return _rowOffset != 0 || _columnOffset != 0;
+    }
+
+    /**
+     * @return the rows the action moves the agent by
+     */
+    public int getRowOffset() {
+        return _rowOffset;
+    }
+
+    /**
+     * @return the columns the action moves the agent by
+     */
+    public int getColumnOffset() {
+        return _columnOffset;
+    }
+
+    /**
+     * @param rowOffset The rows between two neighbouring places
+     * @param columnOffset The columns between two neighbouring places
+     * @return the move from the first place to the second one
+     */
+    public static ActionType getMove(final int rowOffset, final int columnOffset) {
+        for (ActionType type : MOVES) {
+            if (type._rowOffset == rowOffset && type._columnOffset == columnOffset) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Invalid arguments for move: " + rowOffset + "," + columnOffset);
+    }
+
+    private final int _rowOffset;
+    private final int _columnOffset;
+
+    private static final ActionType[] MOVES = {UP, DOWN, LEFT, RIGHT};
+}
@@ -1,16 +1,18 @@
 package agent;
 
+import utilities.eventlog.EventSink;
 import utilities.generalutils.Helper;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import world.PathFinder;
+import world.PathTable;
 import world.Place;
+import world.World;
 
 /**
  * This class described the agent whom will plan and solve the problem in order
@@ -23,9 +25,10 @@ import world.Place;
  * The agent's architecture consists of a Belief, a Desire and an Intention
  * based on the BDI model. The agent also holds the places in the world, the
  * path he has calculated to take, the list of actions he wishes to perform, the
- * score based on his efficiency, his team and id as well as a list of teamates
- * from which he can access their state in the world anytime. He also has a list
- * of messages which his teamates can access to send him a message.
+ * score based on his efficiency, his team, the policy of his team and his id.
+ * He also has a list of messages which the other agents can access to send him
+ * a message. Teamates are only known when they are in line-of-sight, so that
+ * the work of an agent does not grow with the size of his team.
  *
  * @author Kanakari Maria
  * @author Kanellis Dimitris
@@ -33,7 +36,20 @@ import world.Place;
 public class Agent {
 
     /**
-     * The constructor takes the team, id and the random object as parameters.
+     * Works exactly like #Agent(java.lang.String, agent.TeamPolicy, int,
+     * java.util.SplittableRandom) except the policy is the one of the roosters
+     * for team R and the one of the donkeys for team D.
+     *
+     * @see #Agent(java.lang.String, agent.TeamPolicy, int,
+     * java.util.SplittableRandom)
+     */
+    public Agent(final String team, final int id, final SplittableRandom rand) {
+        this(team, defaultPolicy(team), id, rand);
+    }
+
+    /**
+     * The constructor takes the team, the policy of the team, id and the
+     * random object as parameters.
      *
      * Each agent is initialised in roam mode, with a score of zero, the
      * competitive counter and cooldown at zero as well as if he is to roam for
@@ -41,30 +57,60 @@ public class Agent {
      * initialised.
      *
      * @param team The agent's team
+     * @param policy The policy of the agent's team
      * @param id The agent's id
-     * @param rand The random object
+     * @param rand The random object of the agent, which nothing else draws
+     * from
      */
-    public Agent(final String team, final int id, final Random rand) {
+    public Agent(final String team, final TeamPolicy policy, final int id, final SplittableRandom rand) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Invalid value for policy: " + policy);
+        }
         _team = team;
+        _policy = policy;
         _id = id;
 
-        _mode = "ROAM";
+        _mode = Mode.ROAM;
         _score = 0;
-        _teamates = new ArrayList<>();
         _basicMovementActions = new ArrayList<>();
         _actionsToExecute = new ArrayList<>();
-        _places = new ArrayList<>();
+        _scheduledActions = new ArrayList<>();
+        _actionResult = new ActionResult();
+        _places = Collections.emptyList();
         _path = new ArrayList<>();
-        _messages = new ArrayList<>();
+        _mailbox = new Mailbox();
+        _outbox = new ArrayList<>();
+        _round = 0;
+        _acknowledging = true;
+        _broadcastClientsLocation = false;
         _rand = rand;
+        _events = EventSink.NONE;
+        _blockedByOpponent = (place) -> (place.hasOpposingAgent(this) && place.isIn(getBelief().getVisiblePlaces()));
 
         _competitiveCounter = 0;
         _cooldown = 0;
         _roamNextRound = false;
+        _alternativeActions = false;
 
         setBasicMovementsActions();
     }
 
+    /**
+     * @param team The team
+     * @return the policy of the roosters for team R and the one of the donkeys
+     * for team D
+     */
+    private static TeamPolicy defaultPolicy(final String team) {
+        switch (team) {
+            case "R":
+                return new RoosterPolicy();
+            case "D":
+                return new DonkeyPolicy();
+            default:
+                throw new IllegalArgumentException("Invalid arguments for team: " + team);
+        }
+    }
+
     /**
      * @return The agent's team
      */
@@ -88,22 +134,18 @@ public class Agent {
 
     /**
      * Sets the mode of the agent to one of the explicit existing modes and
-     * prints the change (if any).
+     * reports the change (if any).
      *
      * @param mode The mode to set the agent at
      */
-    public void setMode(String mode) {
-        if (!mode.equals(TRANSFERING_MODE)
-                && !mode.equals(KNOWS_CLIENT_LOCATION_MODE)
-                && !mode.equals(ROAM_MODE)
-                && !mode.equals(COMPETITIVE_MODE)
-                && !mode.equals(OPPONENT_COOPERATIVE_MODE)) {
+    public void setMode(final Mode mode) {
+        if (mode == null) {
             throw new IllegalArgumentException("Invalid value for mode: "
                     + mode);
         }
 
-        if (!_mode.equals(mode)) {
-            Helper.modeChangePrint(getName(), _mode, mode);
+        if (_mode != mode) {
+            _events.modeChanged(this, _mode, mode);
         }
 
         _mode = mode;
@@ -117,26 +159,84 @@ public class Agent {
     }
 
     /**
-     * @return the list of teamates the agent has
+     * @return the policy of the agent's team
+     */
+    public TeamPolicy getPolicy() {
+        return _policy;
+    }
+
+    /**
+     * @return the sink the agent reports the events of his turns to
      */
-    public List<Agent> getTeamates() {
-        return _teamates;
+    public EventSink getEventSink() {
+        return _events;
+    }
+
+    /**
+     * @param events the sink to report the events of the agent's turns to
+     */
+    public void setEventSink(final EventSink events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Invalid value for events: " + events);
+        }
+        _events = events;
     }
 
     /**
-     * @return the list of messages the agent has
+     * @return the random object of the agent
      */
-    public List<AgentMessage> getMessages() {
-        return _messages;
+    SplittableRandom getRandom() {
+        return _rand;
     }
 
     /**
-     * Adds a message to the agent's list of messages.
+     * @param agent The other agent
+     * @return true if the other agent is a teamate of this agent, false if not
+     */
+    public boolean isTeamate(final Agent agent) {
+        return agent != this && agent.getTeam().equals(_team);
+    }
+
+    /**
+     * @return the mailbox of the messages the agent has not read yet
+     */
+    public Mailbox getMailbox() {
+        return _mailbox;
+    }
+
+    /**
+     * Adds a message to the agent's mailbox. Any thread may add messages at
+     * any time, even while the agent reads the ones he has.
      *
-     * @param message the message to add to the agent's list of messages
+     * @param message the message to add to the agent's mailbox
      */
     public void addMessage(AgentMessage message) {
-        getMessages().add(message);
+        _mailbox.post(message);
+    }
+
+    /**
+     * @return true if the agent replies to the messages he reads, false if not
+     */
+    public boolean isAcknowledging() {
+        return _acknowledging;
+    }
+
+    /**
+     * @param acknowledging true if the agent replies to the messages he reads
+     * with confirm or deny, false if he only reads them
+     */
+    public void setAcknowledging(final boolean acknowledging) {
+        _acknowledging = acknowledging;
+    }
+
+    /**
+     * The messages the agent sends carry the round, so that every mailbox
+     * reads them in the order of the turns they were sent in.
+     *
+     * @param round the round of the agent's next turn
+     */
+    public void setRound(final int round) {
+        _round = round;
     }
 
     /**
@@ -147,54 +247,62 @@ public class Agent {
      *
      * If the reading of the message returned true, indicating that the agent
      * could perform whatever was instructed for him then the agent will reply
-     * with confirm, otherwise with a deny.
+     * with confirm, otherwise with a deny. No replies are sent at all if the
+     * agent does not acknowledge messages, since reading a reply changes
+     * nothing but the events reported.
      *
-     * After the agent is done reading the messages he clears his list since it
-     * is no longer needed.
+     * The agent takes all the messages of his mailbox at once and reads them
+     * in the order of the turns they were sent in. The messages that arrive
+     * meanwhile are read the next time.
      */
     private void readMessages() {
-        for (AgentMessage agentMessage : _messages) {
-            if (agentMessage.getType().equals(AgentMessage.CONFIRM_TYPE)
-                    || agentMessage.getType().equals(AgentMessage.DENY_TYPE)) {
-                agentMessage.readMessage();
-                continue;
-            }
+        AgentMessage agentMessage = _mailbox.drain();
+        while (agentMessage != null) {
+            final AgentMessage next = agentMessage._next;
+            agentMessage._next = null;
 
-            if (agentMessage.readMessage()) {
-                replyToMessage(agentMessage.getSender(), AgentMessage.CONFIRM_TYPE);
+            if (agentMessage.getType().isReply() || !_acknowledging) {
+                agentMessage.readMessage();
+            } else if (agentMessage.readMessage()) {
+                replyToMessage(agentMessage.getSender(), MessageType.CONFIRM);
             } else {
-                replyToMessage(agentMessage.getSender(), AgentMessage.DENY_TYPE);
+                replyToMessage(agentMessage.getSender(), MessageType.DENY);
             }
+            agentMessage = next;
         }
-        getMessages().clear();
     }
 
     /**
      * Replies to a message that was received with either confirm or deny and
-     * prints the appropriate content.
+     * reports the reply.
      *
      * @param recipient The recipient of the confirm or deny message
      * @param type The type of the confirm or deny message (confirm or deny)
      */
-    private void replyToMessage(final Agent recipient, final String type) {
-        Helper.messageReplyPrint(getName(), recipient.getName(), type);
-
-        recipient.addMessage(new AgentMessage(this, recipient, type));
+    private void replyToMessage(final Agent recipient, final MessageType type) {
+        final AgentMessage message = new AgentMessage(this, recipient, type);
+        message._round = _round;
+        _events.messageReplied(message);
+        _outbox.add(message);
     }
 
     /**
-     * Sends a new message to the recipient specified and prints the appropriate
-     * message.
+     * Sends a new message to the recipient specified and reports it.
+     *
+     * The message is delivered when the agent commits his turn. The content is
+     * a snapshot that nothing can change, so that the recipient reads it as it
+     * was when it was sent and the same content can be sent to many agents.
      *
      * @param recipient The recipient of the message
      * @param type The type of the message
-     * @param content A list of places as content (usually a list of clients
-     * locations)
+     * @param content A list of places as content (usually a snapshot of the
+     * clients locations), which must not change afterwards
      */
-    private void sendMessage(final Agent recipient, final String type, final List<Place> content) {
-        Helper.messageSendPrint(getName(), recipient.getName(), type, content);
-
-        recipient.addMessage(new AgentMessage(this, recipient, type, content));
+    private void sendMessage(final Agent recipient, final MessageType type, final List<Place> content) {
+        final AgentMessage message = new AgentMessage(this, recipient, type, content);
+        message._round = _round;
+        _events.messageSent(message);
+        _outbox.add(message);
     }
 
     /**
@@ -204,23 +312,25 @@ public class Agent {
      *
      * @see #sendMessage(Agent,String,List<Place>)
      */
-    private void sendMessage(final Agent recipient, final String type) {
-        Helper.messageSendPrint(getName(), recipient.getName(), type);
-
-        recipient.addMessage(new AgentMessage(this, recipient, type));
+    private void sendMessage(final Agent recipient, final MessageType type) {
+        final AgentMessage message = new AgentMessage(this, recipient, type);
+        message._round = _round;
+        _events.messageSent(message);
+        _outbox.add(message);
     }
 
     /**
      * This method is used to send the appropriate messages depending on the
      * belief and the mode of the Agent.
      *
-     * Exchange client position: For each teamate the agent checks to see if the
-     * teamate is at the same block as the agent. If he is then the agent will
-     * send him a message with all the client positions that he knows. But that
-     * has as a consequence for the message to be also heard in all the
-     * neighbouring Places (visiblePlaces from the current place). So for each
-     * visible place (except the same Place) the agent also sends the message to
-     * any agent that is there currently.
+     * Exchange client position: If a teamate is at the same block as the
+     * agent, the agent broadcasts all the client positions that he knows to
+     * his neighbourhood: the teamates at the same block and, since the message
+     * is also heard in all the neighbouring Places (visiblePlaces from the
+     * current place), any agent that is at one of them currently. Every agent
+     * of the neighbourhood gets the message once, however many teamates are
+     * at the same block, and all of them share the same snapshot of the
+     * positions.
      *
      * Ask for assistance: If the agent is in competitive mode and the agent has
      * an enemy in his line of sight and a teamate has the same enemy in his
@@ -230,26 +340,34 @@ public class Agent {
      */
     private void sendMessages() {
         // Exchange client position
-        for (Agent teamate : _teamates) {
-            if (teamate.getBelief().getCurrentPlace().equals(getBelief().getCurrentPlace())
-                    && getBelief().knowsClientLocation()) {
-                sendMessage(teamate, AgentMessage.CLIENT_LOCATION_TYPE, getBelief().getClientsLocation());
-                for (Place neighborPlace : getBelief().getVisiblePlaces()) {
-                    if (!neighborPlace.equals(getBelief().getCurrentPlace())) {
-                        for (Agent agent : neighborPlace.getAgentList()) {
-                            sendMessage(agent, AgentMessage.CLIENT_LOCATION_TYPE, getBelief().getClientsLocation());
-                        }
+        _broadcastClientsLocation = getBelief().knowsClientLocation()
+                && getBelief().getCurrentPlace().hasTeamateAgent(this);
+        if (_broadcastClientsLocation) {
+            final List<Place> clientsLocation = getBelief().getClientsLocationSnapshot();
+            for (Agent teamate : getBelief().getCurrentPlace().getAgentList()) {
+                if (isTeamate(teamate)) {
+                    sendMessage(teamate, MessageType.CLIENT_LOCATION, clientsLocation);
+                }
+            }
+            for (Place neighborPlace : getBelief().getVisiblePlaces()) {
+                if (!neighborPlace.equals(getBelief().getCurrentPlace())) {
+                    for (Agent agent : neighborPlace.getAgentList()) {
+                        sendMessage(agent, MessageType.CLIENT_LOCATION, clientsLocation);
                     }
                 }
             }
+        }
 
-            // Ask for assistance
-            if (_mode.equals(COMPETITIVE_MODE)) {
-                for (Place visiblePlace : getBelief().getVisiblePlaces()) {
-                    if (visiblePlace.hasOpposingAgent(this)) {
-                        for (Place teamateVisiblePlace : getTeamates().get(0).getBelief().getVisiblePlaces()) {
-                            if (teamateVisiblePlace.equals(visiblePlace)) {
-                                sendMessage(teamate, AgentMessage.ASSIST_IN_BLOCKING_TYPE);
+        // Ask for assistance
+        if (_mode == Mode.COMPETITIVE) {
+            for (Place visiblePlace : getBelief().getVisiblePlaces()) {
+                if (visiblePlace.hasOpposingAgent(this)) {
+                    // The teamates that can see the enemy are the ones that
+                    // are in line-of-sight of his place
+                    for (Place teamatePlace : _world.getPlacesInSight(visiblePlace)) {
+                        for (Agent teamate : teamatePlace.getAgentList()) {
+                            if (isTeamate(teamate)) {
+                                sendMessage(teamate, MessageType.ASSIST_IN_BLOCKING);
                                 return;
                             }
                         }
@@ -259,76 +377,28 @@ public class Agent {
         }
     }
 
-    /**
-     * Adds a teamate to the teamates list as long as the teamate is not equal
-     * to the current agent.
-     *
-     * @param teamate The teamate to add
-     */
-    public void addTeamate(Agent teamate) {
-        if (!teamate.equals(this)) {
-            _teamates.add(teamate);
-        }
-    }
-
     /**
      * This is where the Agent's levels of priority are set.
      *
      * Highest priority has the case of the Agent transferring a client.
+     * Otherwise the policy of the agent's team sets the mode.
      *
-     * Now depending on the agent:
-     *
-     * If he is a Rooster and there is an opposing agent nearby, then the agent
-     * will enter the competitive mode as a second priority level in order to
-     * obstruct him, as a third priority level if he knows the location of a
-     * client he will enter the knows client location mode in order to seek him
-     * and as a last priority if he can do none of the above he is to roam
-     * around until he can do something.
-     *
-     * If he is a Donkey then the only change is that as a second priority he
-     * has 70% chance to be competitive towards the enemy agent he saw and a 30%
-     * chance to cooperate with the opposing agent by giving him information of
-     * clients locations.
+     * @see RoosterPolicy
+     * @see DonkeyPolicy
      */
     private void determineMode() {
         // Level 1
-        if (_mode.equals(TRANSFERING_MODE)) {
+        if (_mode == Mode.TRANSFERING) {
             return;
         }
 
-        switch (_team) {
-            case "R":
-                // Level 2
-                if (getBelief().opponentNearby() && _cooldown == 0) {
-                    setMode(COMPETITIVE_MODE);
-                } else if (getBelief().knowsClientLocation()) { // Level 3
-                    setMode(KNOWS_CLIENT_LOCATION_MODE);
-                }
-                break;
-            case "D":
-                final int randInt = _rand.nextInt(101);
-
-                if (getBelief().opponentNearby()
-                        && _cooldown == 0
-                        && (Helper.isBetween(randInt, 0, 70) || _mode.equals(COMPETITIVE_MODE))) { // Level 2
-                    setMode(COMPETITIVE_MODE);
-                } else if (getBelief().opponentNearby()
-                        && !_mode.equals(COMPETITIVE_MODE)
-                        && Helper.isBetween(randInt, 71, 100)) { // Level 2
-                    setMode(OPPONENT_COOPERATIVE_MODE);
-                } else if (getBelief().knowsClientLocation()) { // Level 3
-                    setMode(KNOWS_CLIENT_LOCATION_MODE);
-                }
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid arguments for team: " + _team);
-        }
+        _policy.determineMode(this);
     }
 
     /**
      * @return the current mode of the agent
      */
-    public String getMode() {
+    public Mode getMode() {
         return _mode;
     }
 
@@ -337,13 +407,13 @@ public class Agent {
      */
     public String modeToString() {
         switch (_mode) {
-            case ROAM_MODE:
+            case ROAM:
                 return ";";
-            case KNOWS_CLIENT_LOCATION_MODE:
+            case KNOWS_CLIENT_LOCATION:
                 return "!";
-            case TRANSFERING_MODE:
+            case TRANSFERING:
                 return "";
-            case COMPETITIVE_MODE:
+            case COMPETITIVE:
                 return "-";
             default:
                 throw new IllegalArgumentException("Invalid value for mode: " + _mode);
@@ -362,19 +432,22 @@ public class Agent {
      *
      * Firstly it clears the agent's known opponents and teamates locations,
      * secondly adds the clients locations that he can see nearby, thirdly adds
-     * the new opponents locations and lastly the new teamates locations.
+     * the new opponents locations and lastly the new locations of the teamates
+     * that he can see.
      */
     public void determineBelief() {
-        _belief.getOpponentsLocation().clear();
-        _belief.getTeamatesLocation().clear();
+        _belief.clearOpponentsLocation();
+        _belief.clearTeamatesLocation();
 
         _belief.addClientsLocation(getNearbyAvailableClients());
 
         for (Place place : nearbyOpponentsLocation()) {
             _belief.addOpponentLocation(place);
         }
-        for (Agent teamate : _teamates) {
-            _belief.addTeamatesLocation(teamate.getBelief().getCurrentPlace());
+        for (Place place : _belief.getVisiblePlaces()) {
+            if (place.hasTeamateAgent(this)) {
+                _belief.addTeamatesLocation(place);
+            }
         }
     }
 
@@ -424,10 +497,10 @@ public class Agent {
      * Adds the 3 basic movements actions to the basic movements list.
      */
     private void setBasicMovementsActions() {
-        _basicMovementActions.add(new Action(Action.UP_NAME, this));
-        _basicMovementActions.add(new Action(Action.DOWN_NAME, this));
-        _basicMovementActions.add(new Action(Action.LEFT_NAME, this));
-        _basicMovementActions.add(new Action(Action.RIGHT_NAME, this));
+        _basicMovementActions.add(Action.of(ActionType.UP));
+        _basicMovementActions.add(Action.of(ActionType.DOWN));
+        _basicMovementActions.add(Action.of(ActionType.LEFT));
+        _basicMovementActions.add(Action.of(ActionType.RIGHT));
     }
 
     /**
@@ -438,14 +511,23 @@ public class Agent {
     }
 
     /**
-     * Sets the places of the world to the agent places list.
+     * Sets the places of the world as the agent places list. The list is
+     * shared with the world, not copied.
      *
      * @param places the places of the world
      */
     public void setPlaces(final List<Place> places) {
-        for (Place place : places) {
-            _places.add(place);
-        }
+        _places = places;
+    }
+
+    /**
+     * Sets the world the agent plays in, along with its places.
+     *
+     * @param world the world of the agent
+     */
+    public void setWorld(final World world) {
+        _world = world;
+        setPlaces(world.getPlaces());
     }
 
     /**
@@ -458,10 +540,16 @@ public class Agent {
     /**
      * Gets the clients locations that are in line-of-sight of the Agent
      *
+     * The visible places are only looked at if the spatial index of the world
+     * has any clients around the agent.
+     *
      * @return list of clients locations
      */
     public List<Place> getNearbyAvailableClients() {
         List<Place> clientsLocation = new ArrayList<>();
+        if (_world.getSpatialIndex().countClients(_belief.getCurrentPlace(), 1) == 0) {
+            return clientsLocation;
+        }
         for (Place place : _belief.getVisiblePlaces()) {
             if (place.getFirstAvailableClient() != null) {
                 clientsLocation.add(place);
@@ -473,10 +561,16 @@ public class Agent {
     /**
      * Gets the opponent locations that are in line-of-sight of the Agent
      *
+     * The visible places are only looked at if the spatial index of the world
+     * has any other agents around the agent.
+     *
      * @return list of opponent locations
      */
     public List<Place> nearbyOpponentsLocation() {
         List<Place> opponentsLocation = new ArrayList<>();
+        if (_world.getSpatialIndex().countAgents(_belief.getCurrentPlace(), 1) <= 1) {
+            return opponentsLocation;
+        }
         for (Place place : _belief.getVisiblePlaces()) {
             if (place.hasAgent()) {
                 for (Agent agent : place.getAgentList()) {
@@ -492,39 +586,62 @@ public class Agent {
 
     /**
      * Sets the best path to the current destination (client's position,
-     * opponent's flanking position or final destination) by calling the
-     * breadthFirstSearch function.
+     * opponent's flanking position or final destination).
+     *
+     * As long as there is no opponent in line-of-sight the path is taken from
+     * the path table of the world, otherwise (or if the table does not cover
+     * the destination) the breadthFirstSearch function is called in order to
+     * avoid the opponents.
      *
      * @param start The starting Place
      * @param end The ending Place
      */
     public void setPath(final Place start, final Place end) {
-        _path = breadthFirstSearch(start, end);
+        if (!opponentInSight() && setPathFromTable(start, end)) {
+            return;
+        }
+        breadthFirstSearch(start, end);
     }
 
     /**
-     * After the breadthFirstSearch function has finished, getPath starts from
-     * the end Place and goes upwards following each parent until it reaches the
-     * start Place. Then it clears the parents that were set and reverses the
-     * path that was found and returns it.
+     * Sets the path by following the next places of the path table from start
+     * to end. Just like breadthFirstSearch, if end can not be reached the path
+     * only holds end.
      *
-     * @param end The goal that we wanted to reach with breadthFirstSearch
-     * @return The path from start to end
+     * @param start The starting Place
+     * @param end The ending Place
+     * @return true if the path was set, false if the table does not cover end
      */
-    private List<Place> getPath(final Place end) {
-        final List<Place> reversedPath = new ArrayList<>();
-        for (Place place = end; place != null; place = place.getParent()) {
-            reversedPath.add(place);
+    private boolean setPathFromTable(final Place start, final Place end) {
+        final PathTable pathTable = _world.getPathTable();
+        final int distance = pathTable.getDistance(start, end);
+        if (distance == PathTable.NOT_COVERED) {
+            return false;
         }
 
-        clearParents();
+        _path.clear();
+        if (distance == PathTable.UNREACHABLE) {
+            _path.add(end);
+            return true;
+        }
+        for (Place place = start; !place.equals(end); place = pathTable.getNextHop(place, end)) {
+            _path.add(place);
+        }
+        _path.add(end);
+        return true;
+    }
 
-        final List<Place> path = new ArrayList<>();
-        ListIterator li = reversedPath.listIterator(reversedPath.size());
-        while (li.hasPrevious()) {
-            path.add((Place) li.previous());
+    /**
+     * @return true if there is an opposing agent in any of the visible places,
+     * false if not
+     */
+    private boolean opponentInSight() {
+        for (Place place : _belief.getVisiblePlaces()) {
+            if (place.hasOpposingAgent(this)) {
+                return true;
+            }
         }
-        return path;
+        return false;
     }
 
     /**
@@ -575,20 +692,37 @@ public class Agent {
         }
         _belief = belief;
         _desire = desire;
-        _intention = new Intention(desire.getName(), null);
+        _intention = new Intention(desire.getType(), null);
     }
 
     /**
      * go is the core function of the Agent.
      *
+     * The Agent decides what to do and then commits his turn right away.
+     *
+     * @see #decide()
+     * @see #commit()
+     */
+    public void go() {
+        decide();
+        commit();
+    }
+
+    /**
+     * The first half of the agent's turn.
+     *
      * The Agent determines his belief, reads his messages (and replies to
      * them), removes the redundant clients that he thought that existed but do
      * not exist anymore, sends messages to his teamates, determines the mode he
-     * needs to be in, performs the actions that need to be performed based on
-     * his mode and in the end he reloads the places that are in his
-     * line-of-sight.
+     * needs to be in and plans the actions that need to be performed based on
+     * his mode.
+     *
+     * Deciding only reads the world and the other agents: the actions and the
+     * messages are kept until the agent commits his turn. Therefore any number
+     * of agents may decide at the same time, as long as none of them commits
+     * meanwhile.
      */
-    public void go() {
+    public void decide() {
         if (_cooldown > 0) {
             _cooldown--;
         }
@@ -598,28 +732,52 @@ public class Agent {
         sendMessages();
         determineMode();
         switch (_mode) {
-            case ROAM_MODE:
+            case ROAM:
                 roamActions();
                 break;
-            case KNOWS_CLIENT_LOCATION_MODE:
+            case KNOWS_CLIENT_LOCATION:
                 knowsClientLocationActions();
                 break;
-            case TRANSFERING_MODE:
+            case TRANSFERING:
                 transferingActions();
                 break;
-            case COMPETITIVE_MODE:
+            case COMPETITIVE:
                 competitiveActions();
                 break;
-            case OPPONENT_COOPERATIVE_MODE:
+            case OPPONENT_COOPERATIVE:
                 opponentCooperativeActions();
                 break;
             default:
                 throw new IllegalArgumentException("Invalid value for mode: "
                         + _mode);
         }
+    }
+
+    /**
+     * The second half of the agent's turn.
+     *
+     * The agent executes the actions he decided on, delivers the messages he
+     * sent (unless they were delivered already) and in the end he reloads the
+     * places that are in his line-of-sight.
+     */
+    public void commit() {
+        executeScheduledActions();
+        deliverMessages();
+
+        _belief.updateVisiblePlaces();
+        _events.turnEnded(this);
+    }
 
-        _belief.setVisiblePlaces(_places);
-        System.out.println();
+    /**
+     * Delivers the messages the agent sent in this turn to the mailboxes of
+     * their recipients. The agents of a parallel game may deliver their
+     * messages all at the same time, since the mailboxes need no lock.
+     */
+    public void deliverMessages() {
+        for (int i = 0; i < _outbox.size(); i++) {
+            _outbox.get(i).getRecipient().addMessage(_outbox.get(i));
+        }
+        _outbox.clear();
     }
 
     /**
@@ -629,7 +787,7 @@ public class Agent {
      */
     public void roamActions() {
         List<Intention> intentions = plan(null);
-        Collections.shuffle(getBasicMovementsActions(), _rand);
+        Helper.shuffle(getBasicMovementsActions(), _rand);
         runIntentions(intentions);
     }
 
@@ -645,7 +803,7 @@ public class Agent {
      * location he then will try the next closest client location until he has
      * no more.
      *
-     * If he runs out of client locations he then resets to ROAM_MODE and goes
+     * If he runs out of client locations he then resets to ROAM and goes
      * to a random direction (if possible).
      */
     public void knowsClientLocationActions() {
@@ -662,17 +820,15 @@ public class Agent {
 
             intentions.addAll(plan(closestClientLocation));
             if (runIntentions(intentions)) {
-                Helper.foundPathPrint(getName(), closestClientLocation.getFormattedCoords(), closestClientLocation.getState());
-                Helper.movedToPrint(getName(), getBelief().getCurrentPlace().getFormattedCoords(), getBelief().getCurrentPlace().getState());
+                _events.pathFound(this, closestClientLocation);
                 intentions.clear();
                 return;
             } else {
-                Helper.didNotFindPathPrint(getName(), closestClientLocation.getFormattedCoords(), closestClientLocation.getState());
-                Helper.didNotMoveToPrint(getName(), closestClientLocation.getFormattedCoords(), closestClientLocation.getState());
+                _events.pathNotFound(this, closestClientLocation);
                 intentions.clear();
             }
         }
-        setMode(ROAM_MODE);
+        setMode(Mode.ROAM);
         roamActions();
     }
 
@@ -684,16 +840,16 @@ public class Agent {
      * action in order to get to the clients destination.
      *
      * If the agent either can't run an intention needed for the client's
-     * destination he then resets to ROAM_MODE, goes to a random direction, goes
+     * destination he then resets to ROAM, goes to a random direction, goes
      * back to transferring mode and sets the flag to true in order to roam
      * again the next round. So in total he will roam for two rounds (if
      * possible).
      */
     public void transferingActions() {
         if (_roamNextRound) {
-            setMode(ROAM_MODE);
+            setMode(Mode.ROAM);
             roamActions();
-            setMode(TRANSFERING_MODE);
+            setMode(Mode.TRANSFERING);
             _roamNextRound = false;
             return;
         }
@@ -702,24 +858,17 @@ public class Agent {
 
         intentions.addAll(plan(clientDestination));
         if (runIntentions(intentions)) {
-            System.out.println(getName() + " found path for " + clientDestination.getFormattedCoords()
-                    + " (" + clientDestination.getState() + ")");
-
-            System.out.println(getName() + " moved to "
-                    + _belief.getCurrentPlace().getFormattedCoords());
+            _events.pathFound(this, clientDestination);
             intentions.clear();
             return;
         } else {
             intentions.clear();
-            System.out.println(getName() + " could not find path for " + clientDestination.getFormattedCoords()
-                    + " (" + clientDestination.getState() + ")");
-            System.out.println(getName() + " could not move to " + clientDestination.getFormattedCoords()
-                    + " (" + clientDestination.getState() + ")");
+            _events.pathNotFound(this, clientDestination);
         }
 
-        setMode(ROAM_MODE);
+        setMode(Mode.ROAM);
         roamActions();
-        setMode(TRANSFERING_MODE);
+        setMode(Mode.TRANSFERING);
         _roamNextRound = true;
     }
 
@@ -732,12 +881,12 @@ public class Agent {
      * location then he is going to stay there for the round.
      *
      * If the agent either can't execute that action or can't find an accessible
-     * flanking location from his location he then resets to ROAM_MODE and goes
+     * flanking location from his location he then resets to ROAM and goes
      * to a random direction (if possible).
      *
      *
-     * If he exceeded the number of rounds that he can stay in COMPETITIVE_MODE
-     * he then resets to ROAM_MODE.
+     * If he exceeded the number of rounds that he can stay in COMPETITIVE
+     * he then resets to ROAM.
      */
     public void competitiveActions() {
         HashMap<Place, Double> flankingLocations = new HashMap<>();
@@ -757,30 +906,22 @@ public class Agent {
 
             if (closestFlankingLocation.equals(getBelief().getCurrentPlace())) {
                 _competitiveCounter++;
-                System.out.println(getName() + " stayed at " + closestFlankingLocation.getFormattedCoords()
-                        + " (" + closestFlankingLocation.getState() + ")");
+                _events.stayed(this, closestFlankingLocation);
                 return;
             }
 
             intentions.addAll(plan(closestFlankingLocation));
             if (runIntentions(intentions)) {
                 _competitiveCounter++;
-                System.out.println(getName() + " found path for " + closestFlankingLocation.getFormattedCoords()
-                        + " (" + closestFlankingLocation.getState() + ")");
-
-                System.out.println(getName() + " moved to "
-                        + _belief.getCurrentPlace().getFormattedCoords());
+                _events.pathFound(this, closestFlankingLocation);
                 intentions.clear();
                 return;
             } else {
                 intentions.clear();
-                System.out.println(getName() + " could not find path for " + closestFlankingLocation.getFormattedCoords()
-                        + " (" + closestFlankingLocation.getState() + ")");
-                System.out.println(getName() + " could not move to " + closestFlankingLocation.getFormattedCoords()
-                        + " (" + closestFlankingLocation.getState() + ")");
+                _events.pathNotFound(this, closestFlankingLocation);
             }
         }
-        setMode(ROAM_MODE);
+        setMode(Mode.ROAM);
         _cooldown = MAX_COOLDOWN_ROUNDS;
         _competitiveCounter = 0;
         roamActions();
@@ -792,18 +933,24 @@ public class Agent {
      *
      * In that case they will send a message to all nearby opponents (by one
      * block) containing information about clients locations and he then resets
-     * to ROAM_MODE and goes towards a random direction.
+     * to ROAM and goes towards a random direction.
+     *
+     * If he broadcast the clients locations in this turn already, every agent
+     * at the nearby blocks got them, so he does not send them a second time.
      */
     public void opponentCooperativeActions() {
-        for (Place neighborPlace : getBelief().getVisiblePlaces()) {
-            if (!neighborPlace.equals(getBelief().getCurrentPlace())
-                    && neighborPlace.hasOpposingAgent(this)) {
-                for (Agent agent : neighborPlace.getAgentList()) {
-                    sendMessage(agent, AgentMessage.CLIENT_LOCATION_TYPE, getBelief().getClientsLocation());
+        if (!_broadcastClientsLocation) {
+            final List<Place> clientsLocation = getBelief().getClientsLocationSnapshot();
+            for (Place neighborPlace : getBelief().getVisiblePlaces()) {
+                if (!neighborPlace.equals(getBelief().getCurrentPlace())
+                        && neighborPlace.hasOpposingAgent(this)) {
+                    for (Agent agent : neighborPlace.getAgentList()) {
+                        sendMessage(agent, MessageType.CLIENT_LOCATION, clientsLocation);
+                    }
                 }
             }
         }
-        setMode(ROAM_MODE);
+        setMode(Mode.ROAM);
         roamActions();
     }
 
@@ -820,7 +967,7 @@ public class Agent {
                 return visiblePlace.getTraversablePlaces();
             }
         }
-        System.out.println(getName() + " lost the opponent ");
+        _events.opponentLost(this);
         return new ArrayList<>();
     }
 
@@ -836,23 +983,23 @@ public class Agent {
         List<Intention> intentions = new ArrayList<>();
 
         switch (_mode) {
-            case ROAM_MODE:
-                intentions.add(new Intention(Intention.FIND_CLIENT_NAME, shortTermGoal));
+            case ROAM:
+                intentions.add(new Intention(IntentionType.FIND_CLIENT, shortTermGoal));
                 break;
-            case KNOWS_CLIENT_LOCATION_MODE:
-                intentions.add(new Intention(Intention.CALCULATE_PATH_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.CALCULATE_NEXT_ACTION_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.EXECUTE_NEXT_ACTION_NAME, shortTermGoal));
+            case KNOWS_CLIENT_LOCATION:
+                intentions.add(new Intention(IntentionType.CALCULATE_PATH, shortTermGoal));
+                intentions.add(new Intention(IntentionType.CALCULATE_NEXT_ACTION, shortTermGoal));
+                intentions.add(new Intention(IntentionType.EXECUTE_NEXT_ACTION, shortTermGoal));
                 break;
-            case TRANSFERING_MODE:
-                intentions.add(new Intention(Intention.CALCULATE_PATH_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.CALCULATE_NEXT_ACTION_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.EXECUTE_NEXT_ACTION_NAME, shortTermGoal));
+            case TRANSFERING:
+                intentions.add(new Intention(IntentionType.CALCULATE_PATH, shortTermGoal));
+                intentions.add(new Intention(IntentionType.CALCULATE_NEXT_ACTION, shortTermGoal));
+                intentions.add(new Intention(IntentionType.EXECUTE_NEXT_ACTION, shortTermGoal));
                 break;
-            case COMPETITIVE_MODE:
-                intentions.add(new Intention(Intention.CALCULATE_PATH_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.CALCULATE_NEXT_ACTION_NAME, shortTermGoal));
-                intentions.add(new Intention(Intention.EXECUTE_NEXT_ACTION_NAME, shortTermGoal));
+            case COMPETITIVE:
+                intentions.add(new Intention(IntentionType.CALCULATE_PATH, shortTermGoal));
+                intentions.add(new Intention(IntentionType.CALCULATE_NEXT_ACTION, shortTermGoal));
+                intentions.add(new Intention(IntentionType.EXECUTE_NEXT_ACTION, shortTermGoal));
                 break;
             default:
                 throw new IllegalArgumentException("Invalid value for mode: "
@@ -881,15 +1028,15 @@ public class Agent {
      */
     public void setNextAction() {
         if (getBelief().carriesClient()
-                && getMode().equals(TRANSFERING_MODE)
+                && getMode() == Mode.TRANSFERING
                 && getBelief().getClientsOnboard().get(0).getDestination().equals(getBelief().getCurrentPlace())) {
-            setActions(new Action(Action.DISEMBARK_NAME, this));
-            setMode(ROAM_MODE);
-        } else if (getMode().equals(KNOWS_CLIENT_LOCATION_MODE)
+            setActions(Action.of(ActionType.DISEMBARK));
+            setMode(Mode.ROAM);
+        } else if (getMode() == Mode.KNOWS_CLIENT_LOCATION
                 && getBelief().getCurrentPlace().getState() != '-'
                 && getBelief().getCurrentPlace().getFirstAvailableClient() != null) {
-            setActions(new Action(Action.EMBARK_NAME, this));
-            setMode(TRANSFERING_MODE);
+            setActions(Action.of(ActionType.EMBARK));
+            setMode(Mode.TRANSFERING);
         } else if (_path.size() != 1) {
             Place current = _path.get(0);
             Place next = _path.get(1);
@@ -910,40 +1057,84 @@ public class Agent {
     }
 
     /**
-     * Executes the actions in the action list one by one.
+     * Schedules the actions in the action list to be executed when the agent
+     * commits his turn.
+     */
+    public void scheduleActions() {
+        _scheduledActions.addAll(_actionsToExecute);
+        _path.clear();
+        _actionsToExecute.clear();
+    }
+
+    /**
+     * Schedules alternative actions to be executed when the agent commits his
+     * turn: they are executed one by one until one of them succeeds.
      *
-     * If the action was successful then the agent's belief will be updated.
+     * @param actions The actions in the order they are to be tried
+     */
+    public void scheduleAlternativeActions(final List<Action> actions) {
+        _scheduledActions.addAll(actions);
+        _alternativeActions = true;
+        _path.clear();
+    }
+
+    /**
+     * Executes the scheduled actions one by one and reports where the agent
+     * ended up if he was following a path.
      *
-     * @return true if execution was complete, false if not.
+     * An embark can only fail if another agent took the client in the
+     * meantime, in which case the agent goes back to roaming.
      */
-    public boolean executeActions() {
-        boolean success = false;
-        for (Action action : _actionsToExecute) {
-            System.out.println(getName() + " is executing: " + action.getName());
+    private void executeScheduledActions() {
+        for (int i = 0; i < _scheduledActions.size(); i++) {
+            final Action action = _scheduledActions.get(i);
+            if (executeAction(action)) {
+                if (_alternativeActions) {
+                    break;
+                }
+            } else if (action.getType() == ActionType.EMBARK) {
+                setMode(Mode.ROAM);
+            }
+        }
 
-            final ActionResult ar = action.run(getBelief().getCurrentPlace());
-            if (ar.isSucceeded()) {
-                System.out.println(getName() + " successfuly executed: " + action.getName());
-                _score += ar.getTotalCost();
+        if (!_alternativeActions && !_scheduledActions.isEmpty()) {
+            _events.moved(this, getBelief().getCurrentPlace());
+        }
+        _scheduledActions.clear();
+        _alternativeActions = false;
+    }
 
-                if (getBelief().carriesClient()) {
-                    getBelief().getCurrentPlace().removeClient(getBelief().getClientsOnboard().get(0));
-                }
+    /**
+     * Executes an action.
+     *
+     * If the action was successful then the agent's belief will be updated.
+     *
+     * @param action The action to execute
+     * @return true if the action succeeded, false if not
+     */
+    private boolean executeAction(final Action action) {
+        _events.actionExecuting(this, action);
 
-                getBelief().getCurrentPlace().removeAgent(this);
-                getBelief().setCurrentPlace(ar.getNextPlace());
-                getBelief().getCurrentPlace().addAgent(this);
+        final ActionResult ar = action.run(this, getBelief().getCurrentPlace(), _actionResult);
+        _events.actionRun(this, action, ar);
+        if (!ar.isSucceeded()) {
+            return false;
+        }
+        _events.actionExecuted(this, action);
+        _score += ar.getTotalCost();
 
-                if (getBelief().carriesClient()) {
-                    getBelief().getCurrentPlace().addClient(getBelief().getClientsOnboard().get(0));
-                }
+        if (getBelief().carriesClient()) {
+            getBelief().getCurrentPlace().removeClient(getBelief().getClientsOnboard().get(0));
+        }
 
-                success = true;
-            }
+        getBelief().getCurrentPlace().removeAgent(this);
+        getBelief().setCurrentPlace(ar.getNextPlace());
+        getBelief().getCurrentPlace().addAgent(this);
+
+        if (getBelief().carriesClient()) {
+            getBelief().getCurrentPlace().addClient(getBelief().getClientsOnboard().get(0));
         }
-        _path.clear();
-        _actionsToExecute.clear();
-        return success;
+        return true;
     }
 
     /**
@@ -956,77 +1147,39 @@ public class Agent {
      * @return The Action to be executed
      */
     private Action determineAction(final Place first, final Place second) {
-        final int x1 = first.getCoords().getX();
-        final int y1 = first.getCoords().getY();
-        final int x2 = second.getCoords().getX();
-        final int y2 = second.getCoords().getY();
-
-        if (x1 - x2 == 1) {
-            return new Action("UP", this);
-        } else if (x1 - x2 == -1) {
-            return new Action("DOWN", this);
-        } else if (y1 - y2 == 1) {
-            return new Action("LEFT", this);
-        } else if (y1 - y2 == -1) {
-            return new Action("RIGHT", this);
-        } else {
-            throw new IllegalArgumentException("Invalid arguments for determineAction");
-        }
+        final int x1 = first.getX();
+        final int y1 = first.getY();
+        final int x2 = second.getX();
+        final int y2 = second.getY();
+
+        return Action.of(ActionType.getMove(x2 - x1, y2 - y1));
     }
 
     /**
-     * Finds the best path from start to end by performing BFS on the world and
-     * setting the parents accordingly.
+     * Finds the best path from start to end by performing BFS on the world
+     * with the path finder of the current thread.
      *
      * The agent will not take in to account Places that are in line-of-sight
-     * and have an enemy agent.
+     * and have an enemy agent. If the end itself is right next to the agent
+     * and has an enemy agent no path is set at all and if the end can not be
+     * reached the path only holds the end.
      *
-     * @param start the starting Place
+     * @param start the starting Place (the current place of the agent)
      * @param end the ending Place
-     * @return a list of places which is the most efficient path
      */
-    private List<Place> breadthFirstSearch(Place start, final Place end) {
-        final Queue<Place> queue = new ArrayDeque<>();
-        final List<Place> visited = new ArrayList<>();
-        int counter = 0;
-
-        queue.add(start);
-
-        while (!queue.isEmpty()) {
-            counter++;
-            if (counter > 100) {
-                int x = 0;
-            }
-            start = queue.poll();
-            visited.add(start);
-
-            if (start.equals(end)) {
-                break;
-            }
-
-            for (Place neighbor : start.getTraversablePlaces()) {
-                if (neighbor.equals(end) && neighbor.hasOpposingAgent(this)
-                        && neighbor.isIn(getBelief().getCurrentPlace().getTraversablePlaces())) {
-                    clearParents();
-                    return new ArrayList<>();
-                }
-                if (!neighbor.isIn(visited) && !neighbor.isIn(queue)) {
-                    if (!(neighbor.isIn(getBelief().getVisiblePlaces()) && neighbor.hasOpposingAgent(this))) {
-                        queue.add(neighbor);
-                        neighbor.setParent(start);
-                    }
-                }
-            }
+    private void breadthFirstSearch(final Place start, final Place end) {
+        _path.clear();
+        if (!start.equals(end)
+                && end.hasOpposingAgent(this)
+                && end.isIn(getBelief().getCurrentPlace().getTraversablePlaces())) {
+            return;
         }
-        return getPath(end);
-    }
 
-    /**
-     * Clears the parents that were set in the Places by BFS.
-     */
-    private void clearParents() {
-        for (Place place : _places) {
-            place.setParent(null);
+        final PathFinder pathFinder = PathFinder.get(_world);
+        if (pathFinder.search(start, end, _blockedByOpponent)) {
+            pathFinder.copyPath(_places, _path);
+        } else {
+            _path.add(end);
         }
     }
 
@@ -1080,32 +1233,33 @@ public class Agent {
 
     private final String _team;
     private final int _id;
-    private String _mode;
+    private Mode _mode;
 
     private Belief _belief;
     private Desire _desire;
     private Intention _intention;
 
-    private final List<AgentMessage> _messages;
+    private final Mailbox _mailbox;
+    private final List<AgentMessage> _outbox;
+    private int _round;
+    private boolean _acknowledging;
+    private boolean _broadcastClientsLocation;
 
-    private final List<Agent> _teamates;
-    private final List<Place> _places;
+    private final TeamPolicy _policy;
+    private EventSink _events;
+    private List<Place> _places;
+    private World _world;
+    private final Predicate<Place> _blockedByOpponent;
 
-    private List<Place> _path;
+    private final List<Place> _path;
     private final List<Action> _basicMovementActions;
     private final List<Action> _actionsToExecute;
+    private final List<Action> _scheduledActions;
+    private final ActionResult _actionResult;
+    private boolean _alternativeActions;
     private int _score;
     private boolean _roamNextRound;
 
-    /**
-     *
-     */
-    public final static String TRANSFERING_MODE = "TRANSFERING";
-    public final static String KNOWS_CLIENT_LOCATION_MODE = "KNOWS_CLIENT_LOCATION";
-    public final static String ROAM_MODE = "ROAM";
-    public final static String COMPETITIVE_MODE = "COMPETITIVE";
-    public final static String OPPONENT_COOPERATIVE_MODE = "OPPONENT_COOPERATIVE";
-
     private int _competitiveCounter;
     private int _cooldown;
 
@@ -1119,5 +1273,5 @@ public class Agent {
     private static final int MAX_COMPETITIVE_ROUNDS = 5;
     private static final int MAX_COOLDOWN_ROUNDS = 5;
 
-    private final Random _rand;
+    private final SplittableRandom _rand;
 }
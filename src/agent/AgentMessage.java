@@ -22,11 +22,8 @@ public class AgentMessage {
      * @param type The type of the message (predefined)
      * @param content The content of the message (a list of places)
      */
-    public AgentMessage(final Agent sender, final Agent recipient, final String type, final List<Place> content) {
-        if (!type.equals(CLIENT_LOCATION_TYPE)
-                && !type.equals(ASSIST_IN_BLOCKING_TYPE)
-                && !type.equals(CONFIRM_TYPE)
-                && !type.equals(DENY_TYPE)) {
+    public AgentMessage(final Agent sender, final Agent recipient, final MessageType type, final List<Place> content) {
+        if (type == null) {
             throw new IllegalArgumentException("Invalid value for type: "
                     + type);
         }
@@ -39,18 +36,15 @@ public class AgentMessage {
 
     /**
      * Works exactly like #AgentMessage(agent.Agent, agent.Agent,
-     * java.lang.String, java.util.List) except this constructor is used for the
-     * confirm and deny message where the type of the message speaks by itself
-     * and no further actions are needed.
+     * agent.MessageType, java.util.List) except this constructor is used for
+     * the confirm and deny message where the type of the message speaks by
+     * itself and no further actions are needed.
      *
-     * @see #AgentMessage(agent.Agent, agent.Agent, java.lang.String,
+     * @see #AgentMessage(agent.Agent, agent.Agent, agent.MessageType,
      * java.util.List)
      */
-    public AgentMessage(final Agent sender, final Agent recipient, final String type) {
-        if (!type.equals(CLIENT_LOCATION_TYPE)
-                && !type.equals(ASSIST_IN_BLOCKING_TYPE)
-                && !type.equals(CONFIRM_TYPE)
-                && !type.equals(DENY_TYPE)) {
+    public AgentMessage(final Agent sender, final Agent recipient, final MessageType type) {
+        if (type == null) {
             throw new IllegalArgumentException("Invalid value for type: "
                     + type);
         }
@@ -69,11 +63,19 @@ public class AgentMessage {
         return _sender;
     }
 
+    /**
+     *
+     * @return this message's recipient
+     */
+    public Agent getRecipient() {
+        return _recipient;
+    }
+
     /**
      *
      * @return this message's type
      */
-    public String getType() {
+    public MessageType getType() {
         return _type;
     }
 
@@ -98,23 +100,16 @@ public class AgentMessage {
      * @return true if confirm or deny or action can be completed, false if not.
      */
     public boolean readMessage() {
-        System.out.print(_recipient.getName()
-                + " is reading a message from " + _sender.getName() + " :"
-                + "\n\tHeader: " + "[" + getType() + "]"
-                + "\n\tContent: ");
-        for (Place place : _content) {
-            System.out.print(place.getFormattedCoords() + " ");
-        }
-        System.out.println("");
+        _recipient.getEventSink().messageRead(this);
 
         switch (_type) {
-            case CLIENT_LOCATION_TYPE:
+            case CLIENT_LOCATION:
                 return addClientLocation();
-            case ASSIST_IN_BLOCKING_TYPE:
+            case ASSIST_IN_BLOCKING:
                 return assistInBlocking();
-            case CONFIRM_TYPE:
+            case CONFIRM:
                 return true;
-            case DENY_TYPE:
+            case DENY:
                 return true;
             default:
                 throw new IllegalArgumentException("Invalid type for message: "
@@ -126,9 +121,7 @@ public class AgentMessage {
      * Adds the client list of the sender to the recipients client list.
      */
     private boolean addClientLocation() {
-        for (Place place : _content) {
-            _recipient.getBelief().addClientsLocation(place);
-        }
+        _recipient.getBelief().mergeClientsLocation(_sender, _content);
         return true;
     }
 
@@ -141,21 +134,35 @@ public class AgentMessage {
      * read will return false therefore the recipient will reply with deny.
      */
     private boolean assistInBlocking() {
-        if (_recipient.getMode().equals(Agent.TRANSFERING_MODE)
+        if (_recipient.getMode() == Mode.TRANSFERING
                 || _recipient.getCooldown() > 0) {
             return false;
         }
-        _recipient.setMode(Agent.COMPETITIVE_MODE);
+        _recipient.setMode(Mode.COMPETITIVE);
         return true;
     }
 
+    /**
+     * @return the round of the turn the message was sent in
+     */
+    public int getRound() {
+        return _round;
+    }
+
     private final Agent _sender;
     private final Agent _recipient;
-    private final String _type;
+    private final MessageType _type;
     private final List<Place> _content;
 
-    public static final String CLIENT_LOCATION_TYPE = "CLIENT_LOCATION";
-    public static final String ASSIST_IN_BLOCKING_TYPE = "ASSIST_IN_BLOCKING";
-    public static final String CONFIRM_TYPE = "CONFIRM";
-    public static final String DENY_TYPE = "DENY";
+    /**
+     * The round of the turn the message was sent in, by which the mailbox of
+     * the recipient orders the messages.
+     */
+    int _round;
+
+    /**
+     * The message posted to the same mailbox before this one (while it is in
+     * the mailbox) or after it (once the batch it is in is taken).
+     */
+    AgentMessage _next;
 }
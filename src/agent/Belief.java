@@ -1,8 +1,12 @@
 package agent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import world.Client;
 import world.Place;
 
@@ -14,6 +18,15 @@ import world.Place;
  * teamates locations, known clients locations (which may or may not be true),
  * the clients that are onboard and if his desire is complete.
  *
+ * The locations are kept in lists in the order they were found, which is the
+ * order the agent considers them in, and the opponents and the clients
+ * locations also in sets of places, so finding whether a place is one of
+ * them takes constant time however many locations the agent knows.
+ *
+ * Every clients location added gets the next version of the belief, so the
+ * agent can tell which of the locations another agent tells him are new since
+ * the last time that agent told him about them.
+ *
  * @author Kanakari Maria
  * @author Kanellis Dimitris
  */
@@ -27,10 +40,19 @@ public class Belief {
             throw new IllegalArgumentException("Invalid arguments for belief");
         }
         _currentPlace = currentPlace;
-        _visiblePlaces = new ArrayList<>();
+        _visiblePlaces = Collections.emptyList();
         _opponentsLocations = new ArrayList<>();
+        _opponentsLocationSet = new PlaceSet();
         _teamatesLocation = new ArrayList<>();
         _clientsLocations = new ArrayList<>();
+        _clientsLocationSet = new PlaceSet();
+        _opponentsLocationView = Collections.unmodifiableList(_opponentsLocations);
+        _teamatesLocationView = Collections.unmodifiableList(_teamatesLocation);
+        _clientsLocationView = Collections.unmodifiableList(_clientsLocations);
+        _clientsLocationVersions = new int[16];
+        _clientsLocationVersion = 0;
+        _clientsLocationSnapshot = null;
+        _mergedVersions = new IdentityHashMap<>();
         _clientsOnboard = new ArrayList<>();
         _desireComplete = false;
     }
@@ -53,28 +75,11 @@ public class Belief {
 
     /**
      * Sets the visible places of the agent to all the places that are one block
-     * away unless there is a wall in between.
-     *
-     * @param places the places that are in line-of-sight of the agent
+     * away unless there is a wall in between, which every place of the world
+     * knows already. The list of the current place is shared, not copied.
      */
-    public void setVisiblePlaces(final List<Place> places) {
-        _visiblePlaces.clear();
-
-        final int agentX = _currentPlace.getCoords().getX();
-        final int agentY = _currentPlace.getCoords().getY();
-
-        int x;
-        int y;
-
-        for (Place place : places) {
-            x = place.getCoords().getX();
-            y = place.getCoords().getY();
-            if (Math.abs(agentX - x) <= 1
-                    && Math.abs(agentY - y) <= 1
-                    && !place.isIn(_currentPlace.getNonTraversablePlaces())) {
-                _visiblePlaces.add(place);
-            }
-        }
+    public void updateVisiblePlaces() {
+        _visiblePlaces = _currentPlace.getVisiblePlaces();
     }
 
     /**
@@ -83,11 +88,12 @@ public class Belief {
      * @return true if opponent is in line-of-sight, false if not
      */
     public boolean opponentNearby() {
-        for (Place place : _visiblePlaces) {
-            for (Place opponentLocation : _opponentsLocations) {
-                if (place.equals(opponentLocation)) {
-                    return true;
-                }
+        if (_opponentsLocationSet.size() == 0) {
+            return false;
+        }
+        for (int i = 0; i < _visiblePlaces.size(); i++) {
+            if (_opponentsLocationSet.contains(_visiblePlaces.get(i))) {
+                return true;
             }
         }
         return false;
@@ -99,11 +105,12 @@ public class Belief {
      * @return true if client is in line-of-sight, false if not
      */
     public boolean clientNearby() {
-        for (Place place : _visiblePlaces) {
-            for (Place clientLocation : _clientsLocations) {
-                if (place.equals(clientLocation)) {
-                    return true;
-                }
+        if (_clientsLocationSet.size() == 0) {
+            return false;
+        }
+        for (int i = 0; i < _visiblePlaces.size(); i++) {
+            if (_clientsLocationSet.contains(_visiblePlaces.get(i))) {
+                return true;
             }
         }
         return false;
@@ -111,7 +118,7 @@ public class Belief {
 
     /**
      *
-     * @return the visible places of the agent
+     * @return the visible places of the agent (the list can not be modified)
      */
     public List<Place> getVisiblePlaces() {
         return _visiblePlaces;
@@ -161,10 +168,11 @@ public class Belief {
 
     /**
      *
-     * @return the visible opponents from the position of the agent
+     * @return the visible opponents from the position of the agent (the list
+     * can not be modified)
      */
     public List<Place> getOpponentsLocation() {
-        return _opponentsLocations;
+        return _opponentsLocationView;
     }
 
     /**
@@ -174,14 +182,24 @@ public class Belief {
      */
     public void addOpponentLocation(Place opponentLocation) {
         _opponentsLocations.add(opponentLocation);
+        _opponentsLocationSet.add(opponentLocation);
+    }
+
+    /**
+     * Forgets the opponents locations, which are only known while they are in
+     * line-of-sight.
+     */
+    public void clearOpponentsLocation() {
+        _opponentsLocations.clear();
+        _opponentsLocationSet.clear();
     }
 
     /**
      *
-     * @return the teamates location list
+     * @return the teamates location list (the list can not be modified)
      */
     public List<Place> getTeamatesLocation() {
-        return _teamatesLocation;
+        return _teamatesLocationView;
     }
 
     /**
@@ -193,6 +211,14 @@ public class Belief {
         _teamatesLocation.add(teamatesLocation);
     }
 
+    /**
+     * Forgets the teamates locations, which are only known while they are in
+     * line-of-sight.
+     */
+    public void clearTeamatesLocation() {
+        _teamatesLocation.clear();
+    }
+
     /**
      *
      * @return true if the agent believes he knows at least one client's
@@ -203,11 +229,62 @@ public class Belief {
     }
 
     /**
+     * The list is a view of the locations the agent knows, so it changes as
+     * they do.
      *
-     * @return the client location list
+     * @return the client location list (the list can not be modified)
      */
     public List<Place> getClientsLocation() {
-        return _clientsLocations;
+        return _clientsLocationView;
+    }
+
+    /**
+     * The copy is made the first time it is asked for after the locations
+     * changed, so an agent that tells the same locations turn after turn (and
+     * to many agents at once) copies them only once. It can be shared by any
+     * number of messages, since nothing can change it.
+     *
+     * @return a copy of the client location list as it is now (the copy can
+     * not be modified)
+     */
+    public List<Place> getClientsLocationSnapshot() {
+        ClientsLocationSnapshot snapshot = _clientsLocationSnapshot;
+        if (snapshot == null) {
+            final int size = _clientsLocations.size();
+            snapshot = new ClientsLocationSnapshot(_clientsLocations.toArray(new Place[size]),
+                    Arrays.copyOf(_clientsLocationVersions, size), _clientsLocationVersion);
+            _clientsLocationSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Adds the clients locations another agent told to the current clients
+     * locations, just like #addClientsLocation(java.util.List).
+     *
+     * An agent tells his teamates all the locations he knows every turn, most
+     * of which he told them in the turns before. If the locations are a
+     * snapshot of the belief of the sender, only the ones he added since the
+     * last snapshot of his that was merged are looked at: the rest were added
+     * by that merge and are still here, unless some clients location was
+     * removed since, in which case all of them are looked at again. The
+     * locations are therefore added exactly as if all of them were looked at.
+     *
+     * @param sender The agent that told the locations
+     * @param newClientsLocations the new clients locations list to add
+     */
+    public void mergeClientsLocation(final Agent sender, final List<Place> newClientsLocations) {
+        int first = 0;
+        if (newClientsLocations instanceof ClientsLocationSnapshot) {
+            final ClientsLocationSnapshot snapshot = (ClientsLocationSnapshot) newClientsLocations;
+            final Integer merged = _mergedVersions.put(sender, snapshot.getVersion());
+            if (merged != null) {
+                first = snapshot.indexAfter(merged);
+            }
+        }
+        for (int i = first; i < newClientsLocations.size(); i++) {
+            addClientsLocation(newClientsLocations.get(i));
+        }
     }
 
     /**
@@ -217,10 +294,8 @@ public class Belief {
      * @param newClientsLocations the new clients locations list to add
      */
     public void addClientsLocation(List<Place> newClientsLocations) {
-        for (Place newClientLocation : newClientsLocations) {
-            if (!newClientLocation.isIn(_clientsLocations)) {
-                _clientsLocations.add(newClientLocation);
-            }
+        for (int i = 0; i < newClientsLocations.size(); i++) {
+            addClientsLocation(newClientsLocations.get(i));
         }
     }
 
@@ -233,8 +308,14 @@ public class Belief {
      * @param newClientLocation the client to add
      */
     public void addClientsLocation(Place newClientLocation) {
-        if (!newClientLocation.isIn(_clientsLocations)) {
+        if (_clientsLocationSet.add(newClientLocation)) {
+            final int index = _clientsLocations.size();
+            if (index == _clientsLocationVersions.length) {
+                _clientsLocationVersions = Arrays.copyOf(_clientsLocationVersions, index * 2);
+            }
             _clientsLocations.add(newClientLocation);
+            _clientsLocationVersions[index] = ++_clientsLocationVersion;
+            _clientsLocationSnapshot = null;
         }
     }
 
@@ -249,15 +330,34 @@ public class Belief {
      * For example we have a client that is at [0,4] and when the agent is in
      * line-of-sight of that place he sees that no client is there, then he will
      * remove that client location ([0,4] from the _clientsLocations list.
+     *
+     * Only the visible places are looked up in the client locations, so the
+     * list of the locations is only walked through if one of them has to go.
+     * The locations the other agents told are all looked at the next time they
+     * are told, since some of them may be gone now.
      */
     public void removeRedundantClients() {
-        Iterator<Place> iter = _clientsLocations.iterator();
-        while (iter.hasNext()) {
-            Place clientLocation = iter.next();
-            if (clientLocation.isIn(_visiblePlaces) && clientLocation.getFirstAvailableClient() == null) {
-                iter.remove();
+        boolean removed = false;
+        for (int i = 0; i < _visiblePlaces.size(); i++) {
+            final Place place = _visiblePlaces.get(i);
+            if (place.getFirstAvailableClient() == null && _clientsLocationSet.remove(place)) {
+                removed = true;
             }
         }
+        if (removed) {
+            int kept = 0;
+            for (int i = 0; i < _clientsLocations.size(); i++) {
+                final Place clientLocation = _clientsLocations.get(i);
+                if (_clientsLocationSet.contains(clientLocation)) {
+                    _clientsLocations.set(kept, clientLocation);
+                    _clientsLocationVersions[kept] = _clientsLocationVersions[i];
+                    kept++;
+                }
+            }
+            _clientsLocations.subList(kept, _clientsLocations.size()).clear();
+            _clientsLocationSnapshot = null;
+            _mergedVersions.clear();
+        }
     }
 
     /**
@@ -277,10 +377,24 @@ public class Belief {
     }
 
     private Place _currentPlace;
-    private final List<Place> _visiblePlaces;
-    private List<Place> _opponentsLocations;
-    private List<Place> _teamatesLocation;
-    private List<Place> _clientsLocations;
+    private List<Place> _visiblePlaces;
+    private final List<Place> _opponentsLocations;
+    private final PlaceSet _opponentsLocationSet;
+    private final List<Place> _opponentsLocationView;
+    private final List<Place> _teamatesLocation;
+    private final List<Place> _teamatesLocationView;
+    private final List<Place> _clientsLocations;
+    private final PlaceSet _clientsLocationSet;
+    private final List<Place> _clientsLocationView;
+    private int[] _clientsLocationVersions;
+    private int _clientsLocationVersion;
+    private ClientsLocationSnapshot _clientsLocationSnapshot;
+
+    /**
+     * The version of the last snapshot of every agent whose clients locations
+     * were merged since a clients location was last removed.
+     */
+    private final Map<Agent, Integer> _mergedVersions;
     private List<Client> _clientsOnboard;
     private boolean _desireComplete;
 }
@@ -0,0 +1,71 @@
+package agent;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import world.Place;
+
+/**
+ * A copy of the clients locations of a belief that can not be modified, along
+ * with the version of the belief every location was added in.
+ *
+ * The locations of a belief are only ever added at the end of its list or
+ * removed from it, and every location added gets the next version of the
+ * belief, so the versions of a snapshot go up from the first location to the
+ * last. The locations a snapshot has and an older snapshot of the same belief
+ * did not are therefore the ones after some index, which is found by the
+ * version of the older snapshot.
+ */
+final class ClientsLocationSnapshot extends AbstractList<Place> implements RandomAccess {
+
+    /**
+     * @param places The locations, which the snapshot keeps
+     * @param versions The versions the locations were added in, which the
+     * snapshot keeps
+     * @param version The version of the belief when the snapshot was made
+     */
+    ClientsLocationSnapshot(final Place[] places, final int[] versions, final int version) {
+        _places = places;
+        _versions = versions;
+        _version = version;
+    }
+
+    @Override
+    public Place get(final int index) {
+        return _places[index];
+    }
+
+    @Override
+    public int size() {
+        return _places.length;
+    }
+
+    /**
+     * @return the version of the belief when the snapshot was made
+     */
+    int getVersion() {
+        return _version;
+    }
+
+    /**
+     * @param version A version of the belief the snapshot was made of
+     * @return the index of the first location added after that version or
+     * the size of the snapshot if there is none
+     */
+    int indexAfter(final int version) {
+        int low = 0;
+        int high = _versions.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (_versions[middle] <= version) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private final Place[] _places;
+    private final int[] _versions;
+    private final int _version;
+}
@@ -11,25 +11,25 @@ package agent;
 public class Desire {
 
     /**
-     * The Desire of the agent holds the name of the Desire and if the Desire is
+     * The Desire of the agent holds the type of the Desire and if the Desire is
      * complete.
      *
-     * @param name Name of the Desire
+     * @param type Type of the Desire, the intention it is taken as
      */
-    public Desire(final String name) {
-        if (!name.equals("GET_HIGHEST_SCORE")) {
+    public Desire(final IntentionType type) {
+        if (type != IntentionType.GET_HIGHEST_SCORE) {
             throw new IllegalArgumentException("Invalid arguments for desire");
         }
-        _name = name;
+        _type = type;
         _isComplete = false;
     }
 
     /**
      *
-     * @return the name of the desire
+     * @return the type of the desire
      */
-    public String getName() {
-        return _name;
+    public IntentionType getType() {
+        return _type;
     }
 
     /**
@@ -48,6 +48,6 @@ public class Desire {
         return _isComplete;
     }
 
-    private final String _name;
+    private final IntentionType _type;
     private boolean _isComplete;
 }
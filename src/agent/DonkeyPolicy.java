@@ -0,0 +1,34 @@
+package agent;
+
+import utilities.generalutils.Helper;
+
+/**
+ * The policy of the donkeys.
+ *
+ * It works like the policy of the roosters except that when there is an
+ * opposing agent nearby the agent has 70% chance to be competitive towards
+ * him and a 30% chance to cooperate with him by giving him information of
+ * clients locations.
+ */
+public class DonkeyPolicy implements TeamPolicy {
+
+    /**
+     * @param agent The agent whose mode to set
+     */
+    @Override
+    public void determineMode(final Agent agent) {
+        final int randInt = agent.getRandom().nextInt(101);
+
+        if (agent.getBelief().opponentNearby()
+                && agent.getCooldown() == 0
+                && (Helper.isBetween(randInt, 0, 70) || agent.getMode() == Mode.COMPETITIVE)) {
+            agent.setMode(Mode.COMPETITIVE);
+        } else if (agent.getBelief().opponentNearby()
+                && agent.getMode() != Mode.COMPETITIVE
+                && Helper.isBetween(randInt, 71, 100)) {
+            agent.setMode(Mode.OPPONENT_COOPERATIVE);
+        } else if (agent.getBelief().knowsClientLocation()) {
+            agent.setMode(Mode.KNOWS_CLIENT_LOCATION);
+        }
+    }
+}
@@ -14,33 +14,29 @@ import world.Place;
 public class Intention {
 
     /**
-     * The Intention has a name, a short term goal (a place to be at) and if it
+     * The Intention has a type, a short term goal (a place to be at) and if it
      * is complete or not.
      *
      *
-     * @param name Name of the Intention
+     * @param type Type of the Intention
      * @param shortTermGoal The short term goal to achieve
      */
-    public Intention(final String name, final Place shortTermGoal) {
-        if (!name.equals(GET_HIGHEST_SCORE_NAME)
-                && !name.equals(FIND_CLIENT_NAME)
-                && !name.equals(CALCULATE_PATH_NAME)
-                && !name.equals(CALCULATE_NEXT_ACTION_NAME)
-                && !name.equals(EXECUTE_NEXT_ACTION_NAME)) {
-            throw new IllegalArgumentException("Invalid value for name: "
-                    + name);
+    public Intention(final IntentionType type, final Place shortTermGoal) {
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid value for type: "
+                    + type);
         }
-        _name = name;
+        _type = type;
         _shortTermGoal = shortTermGoal;
         _isComplete = false;
     }
 
     /**
      *
-     * @return the name of the intention
+     * @return the type of the intention
      */
-    public String getName() {
-        return _name;
+    public IntentionType getType() {
+        return _type;
     }
 
     /**
@@ -68,44 +64,39 @@ public class Intention {
     }
 
     /**
-     * Starts executing the appropriate actions based on the name of the
+     * Starts executing the appropriate actions based on the type of the
      * Intention
      *
      * @param agent The agent to complete his Intention.
      * @return true if the Intention was successfully completed, false if not.
      */
     public boolean run(final Agent agent) {
-        switch (_name) {
-            case FIND_CLIENT_NAME:
+        switch (_type) {
+            case FIND_CLIENT:
                 return findClient(agent);
-            case CALCULATE_PATH_NAME:
+            case CALCULATE_PATH:
                 return calculatePath(agent);
-            case CALCULATE_NEXT_ACTION_NAME:
+            case CALCULATE_NEXT_ACTION:
                 return calculateNextAction(agent);
-            case EXECUTE_NEXT_ACTION_NAME:
+            case EXECUTE_NEXT_ACTION:
                 return executeNextAction(agent);
             default:
-                throw new IllegalArgumentException("Invalid value for name: "
-                        + _name);
+                throw new IllegalArgumentException("Invalid value for type: "
+                        + _type);
         }
     }
 
     /**
      * In order to find a client the agent has to roam to a random direction, so
-     * he tries each basic movement until one of them works otherwise it returns
-     * false.
+     * he will try each basic movement until one of them works.
      *
      * @param agent The agent to complete this Intention.
-     * @return true if the Intention was successfully completed, false if not.
+     * @return true since the movements are tried when the agent commits his
+     * turn
      */
     private boolean findClient(final Agent agent) {
-        for (Action action : agent.getBasicMovementsActions()) {
-            agent.setActions(action);
-            if (agent.executeActions()) {
-                return true;
-            }
-        }
-        return false;
+        agent.scheduleAlternativeActions(agent.getBasicMovementsActions());
+        return true;
     }
 
     /**
@@ -116,9 +107,7 @@ public class Intention {
      * @return true if the Intention was successfully completed, false if not.
      */
     private boolean calculatePath(final Agent agent) {
-        System.out.println(agent.getName()
-                + " is calculating path to: "
-                + agent.getIntention().getShortTermGoal().getFormattedCoords());
+        agent.getEventSink().intentionRun(agent, this);
         agent.setPath(
                 agent.getBelief().getCurrentPlace(),
                 agent.getIntention().getShortTermGoal());
@@ -137,38 +126,29 @@ public class Intention {
      * @return true if the Intention was successfully completed, false if not.
      */
     private boolean calculateNextAction(final Agent agent) {
-        System.out.println(agent.getName()
-                + " is calculating next action to: "
-                + agent.getIntention().getShortTermGoal().getFormattedCoords());
+        agent.getEventSink().intentionRun(agent, this);
         agent.setNextAction();
         return agent.isActionsValid();
     }
 
     /**
-     * Executes the next appropriate action along the path and then checks if
-     * the action is finished or not.
+     * Schedules the next appropriate action along the path to be executed when
+     * the agent commits his turn and then checks if the action is finished or
+     * not.
      *
      * @param agent the agent to complete this Intention.
      * @return true if the Intention was successfully completed, false if not.
      */
     private boolean executeNextAction(final Agent agent) {
-        System.out.println(agent.getName()
-                + " is executing action to: "
-                + agent.getIntention().getShortTermGoal().getFormattedCoords());
-        agent.executeActions();
+        agent.getEventSink().intentionRun(agent, this);
+        agent.scheduleActions();
         if (agent.isActionsFinished()) {
             return true;
         }
         return false;
     }
 
-    private final String _name;
+    private final IntentionType _type;
     private final Place _shortTermGoal;
     private boolean _isComplete;
-
-    public static final String GET_HIGHEST_SCORE_NAME = "GET_HIGHEST_SCORE";
-    public static final String FIND_CLIENT_NAME = "FIND_CLIENT";
-    public static final String CALCULATE_PATH_NAME = "CALCULATE_PATH";
-    public static final String CALCULATE_NEXT_ACTION_NAME = "CALCULATE_NEXT_ACTION";
-    public static final String EXECUTE_NEXT_ACTION_NAME = "EXECUTE_NEXT_ACTION";
 }
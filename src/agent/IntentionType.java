@@ -0,0 +1,29 @@
+package agent;
+
+/**
+ * The kinds of intentions of an agent, from his desire down to the steps of
+ * his turns.
+ */
+public enum IntentionType {
+
+    /**
+     * The desire of every agent.
+     */
+    GET_HIGHEST_SCORE,
+    /**
+     * Roams to a random direction.
+     */
+    FIND_CLIENT,
+    /**
+     * Calculates the path towards the short term goal.
+     */
+    CALCULATE_PATH,
+    /**
+     * Calculates the next action along the path.
+     */
+    CALCULATE_NEXT_ACTION,
+    /**
+     * Schedules the next action along the path.
+     */
+    EXECUTE_NEXT_ACTION
+}
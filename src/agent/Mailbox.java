@@ -0,0 +1,122 @@
+package agent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The Mailbox holds the messages sent to an agent until he reads them.
+ *
+ * Any number of agents may post to a mailbox at the same time from any thread
+ * without a lock: a message is pushed on a stack with a single compare and
+ * set of the head and the stack is linked through the messages themselves,
+ * so posting allocates nothing. The agent the mailbox belongs to takes all
+ * the messages at once, in a single swap of the head, and reads the batch
+ * while others keep posting.
+ *
+ * The messages posted at the same time from different threads arrive in no
+ * particular order, so every message carries the round of the turn it was
+ * sent in and a batch is taken in the order of those rounds. The messages of
+ * the same round (which are the ones of the same sender) are taken in the
+ * order they were posted. A game therefore reads its messages in the same
+ * order whether they were posted by one thread or many.
+ *
+ * A message can be posted only once, since it is linked in to the mailbox.
+ *
+ * A mailbox has no limit of its own and keeps whatever was posted until it is
+ * taken, but in a game it never holds more than the messages of one turn of
+ * every agent. An agent sends the others messages only while he decides and
+ * posts them only when he commits (or, in a parallel game, once every agent
+ * has decided), and he takes all the messages of his mailbox every time he
+ * decides. In a parallel game the agents decide, deliver and commit in turns
+ * that none of them starts before all of them have finished the previous one,
+ * so no agent posts while the messages of the turn before are still unread.
+ * In a turn an agent sends another one at most the clients locations, a call
+ * for assistance and the replies to the messages he got from that agent, so
+ * a mailbox holds at most a few messages per agent of the game. Posting from
+ * threads that never wait for the owner, with no such turns, lets a mailbox
+ * grow without end.
+ */
+public class Mailbox {
+
+    /**
+     * A mailbox starts empty.
+     */
+    public Mailbox() {
+        _head = new AtomicReference<>();
+    }
+
+    /**
+     * Adds a message to the mailbox. Any thread may post at any time.
+     *
+     * @param message The message to post
+     */
+    public void post(final AgentMessage message) {
+        AgentMessage head;
+        do {
+            head = _head.get();
+            message._next = head;
+        } while (!_head.compareAndSet(head, message));
+    }
+
+    /**
+     * @return true if there are no messages in the mailbox, false if not
+     */
+    public boolean isEmpty() {
+        return _head.get() == null;
+    }
+
+    /**
+     * Takes all the messages in the mailbox at once. Only the agent the
+     * mailbox belongs to may take them.
+     *
+     * The stack holds the messages newest first, so they are put in order by
+     * inserting every message in front of the ones posted after it: messages
+     * posted in the order of their rounds, which is the usual case, are put in
+     * order in a single pass.
+     *
+     * @return the first of the messages, linked to the rest in the order of
+     * their rounds, or null if there are none
+     */
+    AgentMessage drain() {
+        AgentMessage message = _head.getAndSet(null);
+        AgentMessage first = null;
+        while (message != null) {
+            final AgentMessage next = message._next;
+            if (first == null || message._round <= first._round) {
+                message._next = first;
+                first = message;
+            } else {
+                AgentMessage previous = first;
+                while (previous._next != null && previous._next._round < message._round) {
+                    previous = previous._next;
+                }
+                message._next = previous._next;
+                previous._next = message;
+            }
+            message = next;
+        }
+        return first;
+    }
+
+    /**
+     * Takes all the messages in the mailbox at once, like drain(), and adds
+     * them to a list.
+     *
+     * @param messages The list to add the messages to
+     * @return the number of messages taken
+     */
+    public int drainTo(final List<AgentMessage> messages) {
+        int count = 0;
+        AgentMessage message = drain();
+        while (message != null) {
+            final AgentMessage next = message._next;
+            message._next = null;
+            messages.add(message);
+            count++;
+            message = next;
+        }
+        return count;
+    }
+
+    private final AtomicReference<AgentMessage> _head;
+}
@@ -0,0 +1,32 @@
+package agent;
+
+/**
+ * The kinds of messages the agents send each other.
+ */
+public enum MessageType {
+
+    /**
+     * The content holds the client locations the sender knows of.
+     */
+    CLIENT_LOCATION,
+    /**
+     * Asks the recipient to enter competitive mode.
+     */
+    ASSIST_IN_BLOCKING,
+    /**
+     * The reply to a message the recipient acted on.
+     */
+    CONFIRM,
+    /**
+     * The reply to a message the recipient could not act on.
+     */
+    DENY;
+
+    /**
+     * @return true if the message is a reply and is not replied to, false if
+     * not
+     */
+    public boolean isReply() {
+        return this == CONFIRM || this == DENY;
+    }
+}
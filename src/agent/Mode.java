@@ -0,0 +1,28 @@
+package agent;
+
+/**
+ * The modes an agent can be in, which decide what he does in his turn.
+ */
+public enum Mode {
+
+    /**
+     * The agent carries a client to his destination.
+     */
+    TRANSFERING,
+    /**
+     * The agent goes to the closest client he knows of.
+     */
+    KNOWS_CLIENT_LOCATION,
+    /**
+     * The agent goes to a random direction looking for clients.
+     */
+    ROAM,
+    /**
+     * The agent blocks an opponent in line-of-sight.
+     */
+    COMPETITIVE,
+    /**
+     * The agent tells the opponents next to him where the clients are.
+     */
+    OPPONENT_COOPERATIVE
+}
@@ -0,0 +1,149 @@
+package agent;
+
+import java.util.Arrays;
+import world.Place;
+
+/**
+ * A set of places of a single world kept by their ids in an open addressing
+ * hash table, so finding, adding or removing a place takes constant time
+ * however many places the set holds and nothing is allocated unless the table
+ * has to grow.
+ *
+ * The table is probed linearly and is never more than half full. A removed id
+ * is filled in by shifting the ids after it back, so there are no tombstones
+ * and a set that has places added and removed all game long stays as fast as
+ * a new one.
+ */
+class PlaceSet {
+
+    /**
+     * The set starts empty.
+     */
+    PlaceSet() {
+        _ids = new int[MIN_CAPACITY];
+        Arrays.fill(_ids, EMPTY);
+        _size = 0;
+    }
+
+    /**
+     * @param place The place
+     * @return true if the place is in the set, false if not
+     */
+    boolean contains(final Place place) {
+        final int id = place.getId();
+        final int mask = _ids.length - 1;
+        for (int slot = slot(id); _ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (_ids[slot] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param place The place to add
+     * @return true if the place was added, false if it was in the set already
+     */
+    boolean add(final Place place) {
+        final int id = place.getId();
+        final int mask = _ids.length - 1;
+        int slot = slot(id);
+        for (; _ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (_ids[slot] == id) {
+                return false;
+            }
+        }
+        _ids[slot] = id;
+        _size++;
+        if (_size * 2 > _ids.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param place The place to remove
+     * @return true if the place was removed, false if it was not in the set
+     */
+    boolean remove(final Place place) {
+        final int id = place.getId();
+        final int mask = _ids.length - 1;
+        int slot = slot(id);
+        while (_ids[slot] != id) {
+            if (_ids[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift back the ids after the removed one that would not be found
+        // past the hole otherwise
+        int hole = slot;
+        for (int next = (hole + 1) & mask; _ids[next] != EMPTY; next = (next + 1) & mask) {
+            final int home = slot(_ids[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                _ids[hole] = _ids[next];
+                hole = next;
+            }
+        }
+        _ids[hole] = EMPTY;
+        _size--;
+        return true;
+    }
+
+    /**
+     * Removes every place from the set. The table keeps its size.
+     */
+    void clear() {
+        if (_size > 0) {
+            Arrays.fill(_ids, EMPTY);
+            _size = 0;
+        }
+    }
+
+    /**
+     * @return the number of places in the set
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * @return the slot an id is looked for first
+     */
+    private int slot(final int id) {
+        return (id * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(_ids.length));
+    }
+
+    /**
+     * Doubles the table and puts the ids back in it.
+     */
+    private void grow() {
+        final int[] ids = _ids;
+        _ids = new int[ids.length * 2];
+        Arrays.fill(_ids, EMPTY);
+        final int mask = _ids.length - 1;
+        for (int id : ids) {
+            if (id != EMPTY) {
+                int slot = slot(id);
+                while (_ids[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                _ids[slot] = id;
+            }
+        }
+    }
+
+    private int[] _ids;
+    private int _size;
+
+    /**
+     * The value of a slot without an id.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The number of slots of a new table, which has to be a power of two.
+     */
+    private static final int MIN_CAPACITY = 16;
+}
@@ -0,0 +1,24 @@
+package agent;
+
+/**
+ * The policy of the roosters.
+ *
+ * If there is an opposing agent nearby the agent will enter the competitive
+ * mode in order to obstruct him, otherwise if he knows the location of a
+ * client he will enter the knows client location mode in order to seek him.
+ * If he can do none of the above he keeps the mode he is in.
+ */
+public class RoosterPolicy implements TeamPolicy {
+
+    /**
+     * @param agent The agent whose mode to set
+     */
+    @Override
+    public void determineMode(final Agent agent) {
+        if (agent.getBelief().opponentNearby() && agent.getCooldown() == 0) {
+            agent.setMode(Mode.COMPETITIVE);
+        } else if (agent.getBelief().knowsClientLocation()) {
+            agent.setMode(Mode.KNOWS_CLIENT_LOCATION);
+        }
+    }
+}
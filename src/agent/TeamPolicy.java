@@ -0,0 +1,19 @@
+package agent;
+
+/**
+ * The TeamPolicy decides the mode of the agents of a team whenever they are not
+ * transferring a client.
+ *
+ * All the agents of a team share the same policy and in a parallel game many of
+ * them decide at the same time, so a policy must not keep any state of its
+ * own. Anything random has to come from the random object of the agent.
+ */
+public interface TeamPolicy {
+
+    /**
+     * Sets the mode of an agent that is not transferring a client.
+     *
+     * @param agent The agent whose mode to set
+     */
+    void determineMode(Agent agent);
+}
@@ -1,21 +1,18 @@
 package gui;
 
 import agent.Agent;
-import agent.Belief;
-import agent.Desire;
-import agent.Intention;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import javax.swing.BorderFactory;
 import javax.swing.JEditorPane;
 import javax.swing.JFrame;
 import javax.swing.JTextField;
 import javax.swing.SwingWorker;
+import simulation.Simulation;
+import simulation.SimulationListener;
 import utilities.consoleredirect.MessageConsole;
 import world.Place;
-import world.World;
 
 /**
  * This class is used for the GUI of our project and the translation from lists
@@ -24,7 +21,7 @@ import world.World;
  * @author Kanakari Maria
  * @author Kanellis Dimitris
  */
-public class MainGUI extends JFrame {
+public class MainGUI extends JFrame implements SimulationListener {
 
     /**
      * Creates new form GUI
@@ -39,20 +36,11 @@ public class MainGUI extends JFrame {
         _mc.setMessageLines(1000);
 
         _longSeed = System.currentTimeMillis();
-        _round = 0;
-        _agentTurn = 0;
         _gameInProgress = false;
 
-        _rand = new Random();
-        _rand.setSeed(_longSeed);
-
         _worldList = new ArrayList<>();
         initializeRowsAndColumns();
-        _world = new World(5, 5, _rand);
-        _agentList = new ArrayList<>();
-
-        initializeAgents();
-        initializeClients();
+        initializeSimulation();
         updateWorld();
     }
 
@@ -431,7 +419,7 @@ public class MainGUI extends JFrame {
         );
 
         jScorePanel.setBackground(new java.awt.Color(220, 243, 250));
-        jScorePanel.setBorder(javax.swing.BorderFactory.createTitledBorder(null, "Round " + Integer.toString(_round), javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, getFont()));
+        jScorePanel.setBorder(javax.swing.BorderFactory.createTitledBorder(null, "Round 0", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, getFont()));
         jScorePanel.setFont(getFont());
 
         jRoostersScoreLabel.setFont(getFont());
@@ -644,78 +632,74 @@ public class MainGUI extends JFrame {
     }
 
     /**
-     * Initializes the agents of the project. The cases are:
-     *
-     * 1. Two Roosters and one Donkey 2. Two Donkeys and one Rooster 3. Two
-     * Donkeys and two Roosters
+     * Initializes a new simulation from the current seed and registers the GUI
+     * as its observer.
      */
-    private void initializeAgents() {
-        final int randInt = _rand.nextInt(101);
-        if (randInt > 50) { // 3 agents
-            if (randInt > 50) { // 2 roosters
-                _agentList.add(new Agent("R", 1, _rand));
-                _agentList.add(new Agent("R", 2, _rand));
-                _agentList.add(new Agent("D", 1, _rand));
-            } else { // 2 donkeys
-                _agentList.add(new Agent("D", 1, _rand));
-                _agentList.add(new Agent("D", 2, _rand));
-                _agentList.add(new Agent("R", 1, _rand));
-            }
-        } else { // 4 agents
-            _agentList.add(new Agent("D", 1, _rand));
-            _agentList.add(new Agent("D", 2, _rand));
-            _agentList.add(new Agent("R", 1, _rand));
-            _agentList.add(new Agent("R", 2, _rand));
-        }
+    private void initializeSimulation() {
+        _simulation = new Simulation(_longSeed);
+        _simulation.addListener(this);
+    }
 
-        for (Agent agent : _agentList) {
-            for (Agent secondAgent : _agentList) {
-                if (agent.getTeam().equals(secondAgent.getTeam())) {
-                    agent.addTeamate(secondAgent);
+    /**
+     * Updates the round and the GUI world after an agent has played.
+     *
+     * The simulation may be running in the AgentWorker so the update is always
+     * done in the event dispatch thread.
+     *
+     * @param simulation The simulation that played the round
+     * @param agent The agent that played the round
+     */
+    @Override
+    public void roundPlayed(final Simulation simulation, final Agent agent) {
+        java.awt.EventQueue.invokeLater(new Runnable() {
+            public void run() {
+                if (simulation != _simulation) {
+                    return;
                 }
+                jScorePanel.setBorder(BorderFactory.createTitledBorder("Round " + Integer.toString(simulation.getRound())));
+                updateWorld();
             }
-            agent.setPlaces(_world.getPlaces());
-
-            agent.initializeState(
-                    new Belief(_world.setRandomAgent(agent)),
-                    new Desire(Intention.GET_HIGHEST_SCORE_NAME));
-            agent.getBelief().setVisiblePlaces(agent.getPlaces());
-        }
+        });
     }
 
     /**
-     * Initializes the clients of the project.
+     * Announces the winner of the game in the event dispatch thread.
+     *
+     * @param simulation The simulation that ended
+     * @param winningTeam The team with the highest score
      */
-    private void initializeClients() {
-        _world.setRandomClients();
+    @Override
+    public void gameEnded(final Simulation simulation, final String winningTeam) {
+        java.awt.EventQueue.invokeLater(new Runnable() {
+            public void run() {
+                if (simulation != _simulation) {
+                    return;
+                }
+                gameEnded(winningTeam);
+            }
+        });
     }
 
     /**
-     * In case of the ending of a game the winner is announce depending on the
-     * score and the winners desire is set to true.
+     * In case of the ending of a game the winner is announced and the buttons
+     * are reset.
+     *
+     * @param winningTeam The team that won the game
      */
-    private void gameEnded() {
+    private void gameEnded(final String winningTeam) {
+        _gameInProgress = false;
+        jStartButton.setSelected(false);
         jStartButton.setText("Press to Start");
         jStartButton.setEnabled(false);
         jNextMoveButton.setEnabled(false);
         jRestartButton.setEnabled(true);
-        if (Integer.parseInt(jRoostersScoreField.getText()) > Integer.parseInt(jDonkeysScoreField.getText())) {
-            for (Agent agent : _agentList) {
-                if (agent.getTeam().equals("R")) {
-                    agent.getBelief().setDesireComplete(true);
-                }
-            }
+        if (winningTeam.equals(Simulation.ROOSTERS_TEAM)) {
             System.out.println("--------------------------------------------------------------------------------");
             System.out.println("--------------------------------------------------------------------------------");
             System.out.println("-----------------------------Roosters Won!!!!-----------------------------");
             System.out.println("--------------------------------------------------------------------------------");
             System.out.println("--------------------------------------------------------------------------------");
         } else {
-            for (Agent agent : _agentList) {
-                if (agent.getTeam().equals("D")) {
-                    agent.getBelief().setDesireComplete(true);
-                }
-            }
             System.out.println("--------------------------------------------------------------------------------");
             System.out.println("--------------------------------------------------------------------------------");
             System.out.println("------------------------------Donkeys Won!!!!-----------------------------");
@@ -728,7 +712,7 @@ public class MainGUI extends JFrame {
      * Updates the GUI world according to the current world.
      */
     private void updateWorld() {
-        for (Place place : _world.getPlaces()) {
+        for (Place place : _simulation.getWorld().getPlaces()) {
             String cellState = " ";
 
             for (int i = 0; i < place.getClientList().size(); i++) {
@@ -739,20 +723,14 @@ public class MainGUI extends JFrame {
                 cellState = cellState.concat(agent.getName() + agent.modeToString());
             }
 
-            updateCell(place.getCoords().getX(), place.getCoords().getY(), cellState);
+            updateCell(place.getX(), place.getY(), cellState);
         }
 
-        jRoostersScoreField.setText("0");
-        jDonkeysScoreField.setText("0");
-        for (Agent agent : _agentList) {
-            if (agent.getTeam().equals("R")) {
-                jRoostersScoreField.setText(Integer.toString(Integer.parseInt(jRoostersScoreField.getText()) + agent.getScore()));
-            } else {
-                jDonkeysScoreField.setText(Integer.toString(Integer.parseInt(jDonkeysScoreField.getText()) + agent.getScore()));
-            }
-
+        jRoostersScoreField.setText(Integer.toString(_simulation.getTeamScore(Simulation.ROOSTERS_TEAM)));
+        jDonkeysScoreField.setText(Integer.toString(_simulation.getTeamScore(Simulation.DONKEYS_TEAM)));
+        for (Agent agent : _simulation.getAgents()) {
             for (Place visiblePlace : agent.getBelief().getVisiblePlaces()) {
-                updateCell(visiblePlace.getCoords().getX(), visiblePlace.getCoords().getY());
+                updateCell(visiblePlace.getX(), visiblePlace.getY());
             }
         }
     }
@@ -798,47 +776,25 @@ public class MainGUI extends JFrame {
     }
 
     private void jNextMoveButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jNextMoveButtonActionPerformed
-        if (_agentTurn > _agentList.size() - 1) {
-            _agentTurn = 0;
-        }
-
-        if (_round % 10 == 0) {
-            _world.setRandomClients();
-        }
-        System.out.println("------------------------------Round " + Integer.toString(_round) + "------------------------------");
-        _agentList.get(_agentTurn++).go();
+        _simulation.step();
 
-        jScorePanel.setBorder(BorderFactory.createTitledBorder("Round " + Integer.toString(++_round)));
-        if (_agentTurn == _agentList.size()) {
+        if (_simulation.isTurnComplete()) {
             jStartButton.setEnabled(true);
         } else {
             jStartButton.setEnabled(false);
         }
-        updateWorld();
-
-        if (_round >= MAX_ROUNDS_MULTIPLIER * _agentList.size()) {
-            gameEnded();
-        }
     }//GEN-LAST:event_jNextMoveButtonActionPerformed
 
     private void jRestartButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jRestartButtonActionPerformed
         _longSeed = System.currentTimeMillis();
-        _rand.setSeed(_longSeed);
 
         _worldList = new ArrayList<>();
         initializeRowsAndColumns();
-        _world = new World(5, 5, _rand);
-
-        _agentList = new ArrayList<>();
-        initializeAgents();
+        initializeSimulation();
 
-        initializeClients();
-
-        _round = 0;
-        _agentTurn = 0;
         _gameInProgress = false;
 
-        jScorePanel.setBorder(BorderFactory.createTitledBorder("Round " + Integer.toString(_round)));
+        jScorePanel.setBorder(BorderFactory.createTitledBorder("Round " + Integer.toString(_simulation.getRound())));
         jMessageConsoleTextPane.setText("");
         jNextMoveButton.setEnabled(true);
         jStartButton.setEnabled(true);
@@ -852,47 +808,45 @@ public class MainGUI extends JFrame {
             jStartButton.setText("Press to Pause");
             jRestartButton.setEnabled(false);
             jNextMoveButton.setEnabled(false);
-            new AgentWorker().execute();
+            new AgentWorker(_simulation).execute();
         } else {
             jStartButton.setText("Press to Start");
         }
     }//GEN-LAST:event_jStartButtonActionPerformed
 
-    class AgentWorker extends SwingWorker<Void, Integer> {
+    /**
+     * Plays the simulation in the background at the speed selected in the GUI,
+     * one whole turn of all the agents at a time, until it is paused or the
+     * game ends.
+     */
+    class AgentWorker extends SwingWorker<Void, Void> {
+
+        AgentWorker(final Simulation simulation) {
+            _workerSimulation = simulation;
+        }
 
         protected Void doInBackground() throws Exception {
-            while (_gameInProgress && _round < MAX_ROUNDS_MULTIPLIER * _agentList.size()) {
-                for (Agent agent : _agentList) {
-                    if (_round % 10 == 0) {
-                        _world.setRandomClients();
-                    }
-                    System.out.println("------------------------------Round " + Integer.toString(_round) + "------------------------------");
-                    agent.go();
-
-                    publish(_agentTurn);
-                    try {
-                        Thread.sleep((Integer) jSpeedSpinner.getValue());
-                    } catch (InterruptedException ex) {
-                        Thread.currentThread().interrupt();
-                    }
+            while (!_workerSimulation.isFinished()
+                    && (_gameInProgress || !_workerSimulation.isTurnComplete())) {
+                _workerSimulation.step();
+
+                try {
+                    Thread.sleep((Integer) jSpeedSpinner.getValue());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
                 }
             }
-            if (_round >= MAX_ROUNDS_MULTIPLIER * _agentList.size()) {
-                gameEnded();
-            } else {
-                jRestartButton.setEnabled(true);
-                jNextMoveButton.setEnabled(true);
-            }
-
             return null;
         }
 
-        protected void process(List<Integer> chunks) {
-            for (Integer integer : chunks) {
-                jScorePanel.setBorder(BorderFactory.createTitledBorder("Round " + Integer.toString(++_round)));
-                updateWorld();
+        protected void done() {
+            if (!_workerSimulation.isFinished()) {
+                jRestartButton.setEnabled(true);
+                jNextMoveButton.setEnabled(true);
             }
         }
+
+        private final Simulation _workerSimulation;
     }
 
     public static void main(String args[]) {
@@ -929,23 +883,11 @@ public class MainGUI extends JFrame {
 
     private final MessageConsole _mc;
 
-    boolean _gameInProgress;
+    volatile boolean _gameInProgress;
     long _longSeed;
-    Random _rand;
-    int _round;
-    int _agentTurn;
 
-    World _world;
+    Simulation _simulation;
     private List<List<JTextField>> _worldList;
-    private List<Agent> _agentList;
-
-    /**
-     * Multiplier for the round limit depending on the number of agents.
-     *
-     * If for example we have 3 agents then there are going to be 300 rounds, if
-     * there are 4 then 400 and so on and so forth.
-     */
-    private static final int MAX_ROUNDS_MULTIPLIER = 100;
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JPanel jButtonsPanel;
@@ -0,0 +1,79 @@
+package simulation;
+
+import agent.Action;
+import agent.ActionResult;
+import agent.ActionType;
+import agent.Agent;
+import java.util.HashMap;
+import java.util.Map;
+import utilities.eventlog.EventSink;
+import world.Place;
+
+/**
+ * Counts the deliveries and the crashes of every team of a game.
+ *
+ * A delivery is a successful disembark. A crash is a move towards a place with
+ * an opposing agent, which fails since two opposing agents can never be on the
+ * same place.
+ *
+ * The agents run their actions when they commit their turns, one after the
+ * other, so the counter is never used by two threads at once.
+ */
+public class ActionCounter implements EventSink {
+
+    /**
+     * An ActionCounter starts without any deliveries or crashes.
+     */
+    public ActionCounter() {
+        _deliveries = new HashMap<>();
+        _crashes = new HashMap<>();
+    }
+
+    @Override
+    public void actionRun(final Agent agent, final Action action, final ActionResult result) {
+        if (result.isSucceeded()) {
+            if (action.getType() == ActionType.DISEMBARK) {
+                _deliveries.merge(agent.getTeam(), 1, Integer::sum);
+            }
+            return;
+        }
+
+        final Place target = getTarget(result.getNextPlace(), action);
+        if (target != null && target.hasOpposingAgent(agent)) {
+            _crashes.merge(agent.getTeam(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @param place The place a move was run from
+     * @param action The move
+     * @return the neighbouring place the move goes to or null if it is not a
+     * move or there is no traversable place there
+     */
+    private static Place getTarget(final Place place, final Action action) {
+        if (!action.getType().isMove()) {
+            return null;
+        }
+        return place.getTraversablePlace(action.getType().getRowOffset(), action.getType().getColumnOffset());
+    }
+
+    /**
+     * @param team The team
+     * @return the number of clients the agents of the team delivered
+     */
+    public int getDeliveries(final String team) {
+        return _deliveries.getOrDefault(team, 0);
+    }
+
+    /**
+     * @param team The team
+     * @return the number of times the agents of the team ran in to an
+     * opposing agent
+     */
+    public int getCrashes(final String team) {
+        return _crashes.getOrDefault(team, 0);
+    }
+
+    private final Map<String, Integer> _deliveries;
+    private final Map<String, Integer> _crashes;
+}
@@ -0,0 +1,117 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import utilities.eventlog.BinaryEventSink;
+import utilities.eventlog.EventSink;
+import world.WorldMap;
+import world.WorldSnapshot;
+
+/**
+ * Runs a batch of games one after the other without any user interface and
+ * reports the winner of each game.
+ *
+ * Usage: BatchRunner [games] [seed] [map|-] [logs]
+ *
+ * where map is either the path of a map description, the path of a world
+ * snapshot (see WorldSnapshot) or WIDTHxHEIGHT for a randomly generated map of
+ * that size. The default 5x5 world is used if no map is given or the map is
+ * given as -, so a directory for the logs can be given without a map. The
+ * static part of the world is built once and shared by all the games. If a
+ * directory for the logs is given, the events of every game are recorded in a
+ * binary log named after its seed, which Replay plays back.
+ */
+public class BatchRunner {
+
+    /**
+     * Nobody follows the games, so their events are not reported at all (and
+     * the agents do not reply to their messages) unless they are recorded.
+     *
+     * @param args the number of games to play, the seed of the first game,
+     * the map to play on and the directory for the logs
+     * @throws IOException if the map description could not be read or a log
+     * could not be written
+     */
+    public static void main(String args[]) throws IOException {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.currentTimeMillis();
+        final WorldSnapshot world = loadWorld(args.length > 2 ? args[2] : DEFAULT_MAP, seed);
+        final Path logs = args.length > 3 ? Paths.get(args[3]) : null;
+
+        int roostersWins = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            final Simulation simulation = new Simulation(seed + i, world, null, false);
+            if (logs == null) {
+                simulation.setEventSink(EventSink.NONE);
+                simulation.setAcknowledging(false);
+                simulation.run();
+            } else {
+                try (BinaryEventSink log = BinaryEventSink.open(logs.resolve("game-" + Long.toString(seed + i) + ".log"))) {
+                    simulation.setEventSink(log);
+                    simulation.run();
+                }
+            }
+            if (simulation.getWinningTeam().equals(Simulation.ROOSTERS_TEAM)) {
+                roostersWins++;
+            }
+            System.out.println("Game " + Integer.toString(i) + " (seed " + Long.toString(seed + i) + "): "
+                    + "Roosters " + Integer.toString(simulation.getTeamScore(Simulation.ROOSTERS_TEAM))
+                    + ", Donkeys " + Integer.toString(simulation.getTeamScore(Simulation.DONKEYS_TEAM)));
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Roosters won " + Integer.toString(roostersWins) + "/" + Integer.toString(games)
+                + " games, " + String.format("%.1f", games / seconds) + " games/s");
+    }
+
+    /**
+     * Loads the map given in the command line.
+     *
+     * @param map Either the path of a map description or WIDTHxHEIGHT
+     * @param seed The seed used to generate a map
+     * @return the map
+     * @throws IOException if the map description could not be read
+     */
+    static WorldMap loadMap(final String map, final long seed) throws IOException {
+        final Matcher size = Pattern.compile("(\\d+)x(\\d+)").matcher(map);
+        if (size.matches()) {
+            return WorldMap.generate(Integer.parseInt(size.group(1)), Integer.parseInt(size.group(2)), new Random(seed));
+        }
+        return WorldMap.load(Paths.get(map));
+    }
+
+    /**
+     * Loads the static part of the world given in the command line. A world
+     * snapshot is mapped as it is, any other map is loaded and its snapshot
+     * built.
+     *
+     * @param map Either the path of a world snapshot, the path of a map
+     * description, WIDTHxHEIGHT or - for the default 5x5 world
+     * @param seed The seed used to generate a map
+     * @return the snapshot of the world
+     * @throws IOException if the snapshot or the map description could not be
+     * read
+     */
+    static WorldSnapshot loadWorld(final String map, final long seed) throws IOException {
+        if (map.equals(DEFAULT_MAP)) {
+            return WorldSnapshot.of(WorldMap.defaultMap());
+        }
+        final Path path = Paths.get(map);
+        if (Files.isRegularFile(path) && WorldSnapshot.isSnapshot(path)) {
+            return WorldSnapshot.open(path);
+        }
+        return WorldSnapshot.of(loadMap(map, seed));
+    }
+
+    /**
+     * The value of the map in the command line that stands for the default
+     * world.
+     */
+    static final String DEFAULT_MAP = "-";
+}
@@ -0,0 +1,249 @@
+package simulation;
+
+import agent.DonkeyPolicy;
+import agent.RoosterPolicy;
+import agent.TeamPolicy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Fleet is the description of the teams of a game: the name of every team,
+ * the policy its agents follow and how many agents it has.
+ *
+ * A fleet can be built in code, loaded from a text description or made of a
+ * number of equal teams. The text description has one team per line:
+ *
+ * <pre>
+ * # comment
+ * team &lt;name&gt; &lt;policy&gt; &lt;number of agents&gt;
+ * </pre>
+ *
+ * where the policy is either rooster, donkey or the name of a class that
+ * implements agent.TeamPolicy and has a constructor without arguments. The
+ * name of a team is made of letters only, since the name of an agent is the
+ * name of his team followed by his id.
+ */
+public class Fleet {
+
+    /**
+     * A Fleet starts without any teams.
+     */
+    public Fleet() {
+        _names = new ArrayList<>();
+        _policies = new ArrayList<>();
+        _sizes = new ArrayList<>();
+    }
+
+    /**
+     * Makes a fleet of equal teams. The teams are named with a single letter,
+     * R and D first, and follow the policy of the roosters and the one of the
+     * donkeys in turn.
+     *
+     * @param teams The number of teams
+     * @param agentsPerTeam The number of agents of every team
+     * @return the fleet
+     */
+    public static Fleet uniform(final int teams, final int agentsPerTeam) {
+        if (teams < 1 || teams > TEAM_NAMES.length()) {
+            throw new IllegalArgumentException("Invalid value for teams: " + teams);
+        }
+        final Fleet fleet = new Fleet();
+        for (int i = 0; i < teams; i++) {
+            fleet.addTeam(TEAM_NAMES.substring(i, i + 1),
+                    i % 2 == 0 ? new RoosterPolicy() : new DonkeyPolicy(),
+                    agentsPerTeam);
+        }
+        return fleet;
+    }
+
+    /**
+     * Loads a fleet from a file with a text description.
+     *
+     * @param path The path of the file
+     * @return the fleet that was loaded
+     * @throws IOException if the file could not be read
+     */
+    public static Fleet load(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Works exactly like #parse(java.io.Reader) except the description is
+     * given as a string.
+     *
+     * @see #parse(java.io.Reader)
+     */
+    public static Fleet parse(final String description) {
+        try {
+            return parse(new StringReader(description));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Reads a fleet from a text description.
+     *
+     * @param description The reader of the description
+     * @return the fleet that was read
+     * @throws IOException if the description could not be read
+     */
+    public static Fleet parse(final Reader description) throws IOException {
+        final BufferedReader reader = new BufferedReader(description);
+        final Fleet fleet = new Fleet();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final String[] tokens = line.split("\\s+");
+            try {
+                if (!tokens[0].equals("team")) {
+                    throw new IllegalArgumentException("Unknown entry: " + tokens[0]);
+                }
+                if (tokens.length != 4) {
+                    throw new IllegalArgumentException("Invalid number of values for " + tokens[0]);
+                }
+                fleet.addTeam(tokens[1], createPolicy(tokens[2]), Integer.parseInt(tokens[3]));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Line " + Integer.toString(lineNumber) + ": " + ex.getMessage(), ex);
+            }
+        }
+        return fleet;
+    }
+
+    /**
+     * Creates the policy of a description.
+     *
+     * @param name rooster, donkey or the name of a class
+     * @return the policy
+     */
+    private static TeamPolicy createPolicy(final String name) {
+        switch (name) {
+            case ROOSTER_POLICY:
+                return new RoosterPolicy();
+            case DONKEY_POLICY:
+                return new DonkeyPolicy();
+            default:
+                try {
+                    return Class.forName(name).asSubclass(TeamPolicy.class).getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException ex) {
+                    throw new IllegalArgumentException("Invalid value for policy: " + name, ex);
+                }
+        }
+    }
+
+    /**
+     * @param policy The policy
+     * @return the name of the policy in a description
+     */
+    private static String getPolicyName(final TeamPolicy policy) {
+        if (policy.getClass() == RoosterPolicy.class) {
+            return ROOSTER_POLICY;
+        }
+        if (policy.getClass() == DonkeyPolicy.class) {
+            return DONKEY_POLICY;
+        }
+        return policy.getClass().getName();
+    }
+
+    /**
+     * Adds a team to the fleet.
+     *
+     * @param name The name of the team (letters only)
+     * @param policy The policy the agents of the team follow
+     * @param agents The number of agents of the team
+     */
+    public void addTeam(final String name, final TeamPolicy policy, final int agents) {
+        if (name == null || !name.matches("[A-Za-z]+") || _names.contains(name)) {
+            throw new IllegalArgumentException("Invalid value for name: " + name);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Invalid value for policy: " + policy);
+        }
+        if (agents < 1) {
+            throw new IllegalArgumentException("Invalid value for agents: " + agents);
+        }
+        _names.add(name);
+        _policies.add(policy);
+        _sizes.add(agents);
+    }
+
+    /**
+     * @return the names of the teams in the order they were added
+     */
+    public List<String> getTeamNames() {
+        return Collections.unmodifiableList(_names);
+    }
+
+    /**
+     * @param team The index of the team
+     * @return the policy of the team
+     */
+    public TeamPolicy getPolicy(final int team) {
+        return _policies.get(team);
+    }
+
+    /**
+     * @param team The index of the team
+     * @return the number of agents of the team
+     */
+    public int getTeamSize(final int team) {
+        return _sizes.get(team);
+    }
+
+    /**
+     * @return the number of agents of all the teams
+     */
+    public int getSize() {
+        int size = 0;
+        for (int teamSize : _sizes) {
+            size += teamSize;
+        }
+        return size;
+    }
+
+    /**
+     * @return the text description of this fleet
+     */
+    @Override
+    public String toString() {
+        final StringBuilder description = new StringBuilder();
+        for (int i = 0; i < _names.size(); i++) {
+            description.append("team ").append(_names.get(i))
+                    .append(' ').append(getPolicyName(_policies.get(i)))
+                    .append(' ').append(_sizes.get(i)).append('\n');
+        }
+        return description.toString();
+    }
+
+    private final List<String> _names;
+    private final List<TeamPolicy> _policies;
+    private final List<Integer> _sizes;
+
+    /**
+     * The names of the policies in a description.
+     */
+    private static final String ROOSTER_POLICY = "rooster";
+    private static final String DONKEY_POLICY = "donkey";
+
+    /**
+     * The names given to the teams of a uniform fleet in turn.
+     */
+    private static final String TEAM_NAMES = "RDABCEFGHIJKLMNOPQSTUVWXYZ";
+}
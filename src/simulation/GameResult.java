@@ -0,0 +1,87 @@
+package simulation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameResult is what is left of a game once it has ended: its seed, the
+ * winning team and the score, the deliveries and the crashes of every team.
+ */
+public class GameResult {
+
+    /**
+     * @param simulation The game, which has ended
+     * @param counter The counter of the actions of the game
+     */
+    public GameResult(final Simulation simulation, final ActionCounter counter) {
+        if (!simulation.isFinished()) {
+            throw new IllegalArgumentException("The game has not ended yet");
+        }
+        _seed = simulation.getSeed();
+        _winningTeam = simulation.getWinningTeam();
+        _teams = simulation.getTeams();
+        _scores = new LinkedHashMap<>();
+        _deliveries = new LinkedHashMap<>();
+        _crashes = new LinkedHashMap<>();
+        for (String team : _teams) {
+            _scores.put(team, simulation.getTeamScore(team));
+            _deliveries.put(team, counter.getDeliveries(team));
+            _crashes.put(team, counter.getCrashes(team));
+        }
+    }
+
+    /**
+     * @return the seed of the game
+     */
+    public long getSeed() {
+        return _seed;
+    }
+
+    /**
+     * @return the team that won the game
+     */
+    public String getWinningTeam() {
+        return _winningTeam;
+    }
+
+    /**
+     * @return the teams of the game in the order they were added to the fleet
+     */
+    public List<String> getTeams() {
+        return Collections.unmodifiableList(_teams);
+    }
+
+    /**
+     * @param team The team
+     * @return the score of the team
+     */
+    public int getScore(final String team) {
+        return _scores.get(team);
+    }
+
+    /**
+     * @param team The team
+     * @return the number of clients the agents of the team delivered
+     */
+    public int getDeliveries(final String team) {
+        return _deliveries.get(team);
+    }
+
+    /**
+     * @param team The team
+     * @return the number of times the agents of the team ran in to an
+     * opposing agent
+     */
+    public int getCrashes(final String team) {
+        return _crashes.get(team);
+    }
+
+    private final long _seed;
+    private final String _winningTeam;
+    private final List<String> _teams;
+    private final Map<String, Integer> _scores;
+    private final Map<String, Integer> _deliveries;
+    private final Map<String, Integer> _crashes;
+}
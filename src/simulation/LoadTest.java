@@ -0,0 +1,119 @@
+package simulation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import world.WorldSnapshot;
+
+/**
+ * Measures how long a turn of a parallel game takes as the fleet grows, and
+ * how many messages the agents send in a turn.
+ *
+ * Usage: LoadTest map teams turns agents...
+ *
+ * where map is either the path of a map description, the path of a world
+ * snapshot or WIDTHxHEIGHT for a randomly generated map of that size, teams is
+ * the number of equal teams, turns is the number of turns to measure and
+ * agents are the sizes of the fleets to measure. Every fleet plays a game with
+ * the agents replying to the messages they read and another one without the
+ * replies. A game is played for a few turns first so that the measured turns
+ * run on warmed up code, then the mean, the median, the 99th percentile and
+ * the longest time of a turn are reported along with the messages and the
+ * replies sent per turn.
+ */
+public class LoadTest {
+
+    /**
+     * @param args the map, the number of teams, the number of turns and the
+     * sizes of the fleets
+     * @throws IOException if the map description could not be read
+     */
+    public static void main(String args[]) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadTest map teams turns agents...");
+            return;
+        }
+        final long seed = 0;
+        final WorldSnapshot world = BatchRunner.loadWorld(args[0], seed);
+        final int teams = Integer.parseInt(args[1]);
+        final int turns = Integer.parseInt(args[2]);
+
+        for (int i = 3; i < args.length; i++) {
+            final int agents = Integer.parseInt(args[i]);
+            System.out.println(measure(world, seed, Fleet.uniform(teams, Math.max(1, agents / teams)), turns, true));
+            System.out.println(measure(world, seed, Fleet.uniform(teams, Math.max(1, agents / teams)), turns, false));
+        }
+    }
+
+    /**
+     * Plays the turns of a parallel game.
+     *
+     * @param world The world to play on
+     * @param seed The seed of the game
+     * @param fleet The teams of the game
+     * @param turns The number of turns to measure
+     * @param acknowledging true if the agents reply to the messages they read
+     * @return the line with the statistics of the turns
+     */
+    private static String measure(final WorldSnapshot world, final long seed, final Fleet fleet, final int turns,
+            final boolean acknowledging) {
+        final Simulation simulation = new Simulation(seed, world, fleet, true);
+        final MessageCounter messages = new MessageCounter();
+        simulation.setEventSink(messages);
+        simulation.setAcknowledging(acknowledging);
+
+        for (int turn = 0; turn < WARMUP_TURNS && !simulation.isFinished(); turn++) {
+            simulation.step();
+        }
+
+        messages.reset();
+        final long[] times = new long[turns];
+        int measured = 0;
+        while (measured < turns && !simulation.isFinished()) {
+            final long start = System.nanoTime();
+            simulation.step();
+            times[measured++] = System.nanoTime() - start;
+        }
+        return report(simulation.getAgents().size(), Arrays.copyOf(times, measured))
+                + ", messages " + String.format("%.1f", messages.getSent() / (double) Math.max(1, measured))
+                + ", replies " + String.format("%.1f", messages.getReplied() / (double) Math.max(1, measured))
+                + " per turn";
+    }
+
+    /**
+     * @param agents The number of agents
+     * @param times The time each turn took in nanoseconds
+     * @return the line with the statistics of the turns
+     */
+    private static String report(final int agents, final long[] times) {
+        Arrays.sort(times);
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return "agents " + Integer.toString(agents)
+                + ": turns " + Integer.toString(times.length)
+                + ", mean " + String.format("%.2f", total / 1e6 / Math.max(1, times.length)) + " ms"
+                + ", median " + String.format("%.2f", percentile(times, 0.5) / 1e6) + " ms"
+                + ", p99 " + String.format("%.2f", percentile(times, 0.99) / 1e6) + " ms"
+                + ", max " + String.format("%.2f", percentile(times, 1) / 1e6) + " ms";
+    }
+
+    /**
+     * @param sortedTimes The times in ascending order
+     * @param fraction The fraction of the times that are not longer than the
+     * one returned
+     * @return the percentile of the times or zero if there are none
+     */
+    private static long percentile(final long[] sortedTimes, final double fraction) {
+        if (sortedTimes.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(fraction * sortedTimes.length) - 1;
+        return sortedTimes[Math.max(0, Math.min(sortedTimes.length - 1, index))];
+    }
+
+    /**
+     * The number of turns played before measuring.
+     */
+    private static final int WARMUP_TURNS = 5;
+}
@@ -0,0 +1,57 @@
+package simulation;
+
+import agent.AgentMessage;
+import java.util.concurrent.atomic.LongAdder;
+import utilities.eventlog.EventSink;
+
+/**
+ * Counts the messages the agents of a game send and the replies to them.
+ *
+ * The agents of a parallel game send their messages while they decide, all
+ * at the same time, so the counts can be added to by many threads at once.
+ */
+public class MessageCounter implements EventSink {
+
+    /**
+     * A MessageCounter starts without any messages.
+     */
+    public MessageCounter() {
+        _sent = new LongAdder();
+        _replied = new LongAdder();
+    }
+
+    @Override
+    public void messageSent(final AgentMessage message) {
+        _sent.increment();
+    }
+
+    @Override
+    public void messageReplied(final AgentMessage message) {
+        _replied.increment();
+    }
+
+    /**
+     * @return the number of messages sent, the replies excluded
+     */
+    public long getSent() {
+        return _sent.sum();
+    }
+
+    /**
+     * @return the number of replies sent
+     */
+    public long getReplied() {
+        return _replied.sum();
+    }
+
+    /**
+     * Starts counting from zero again.
+     */
+    public void reset() {
+        _sent.reset();
+        _replied.reset();
+    }
+
+    private final LongAdder _sent;
+    private final LongAdder _replied;
+}
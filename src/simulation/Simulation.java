@@ -0,0 +1,463 @@
+package simulation;
+
+import agent.Agent;
+import agent.Belief;
+import agent.Desire;
+import agent.DonkeyPolicy;
+import agent.IntentionType;
+import agent.RoosterPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import utilities.eventlog.ConsoleEventSink;
+import utilities.eventlog.EventLevel;
+import utilities.eventlog.EventSink;
+import world.World;
+import world.WorldMap;
+import world.WorldSnapshot;
+
+/**
+ * The Simulation is the engine that plays a game without any user interface.
+ *
+ * It owns the world, the agents and the round bookkeeping: every round one
+ * agent plays his turn, every ten rounds new clients are put in the world and
+ * the game ends after MAX_ROUNDS_MULTIPLIER rounds per agent. Anything that
+ * wants to follow the game (like the GUI) registers as a SimulationListener.
+ * The rounds and the turns of the agents are narrated by the event sink of the
+ * game, which is every event on the standard output unless set otherwise.
+ *
+ * A parallel game is played a turn at a time instead: first all the agents
+ * decide what to do at the same time on the common fork-join pool, looking at
+ * the world as it was at the start of the turn, then they all deliver their
+ * messages at the same time and then they commit their moves and embarks one
+ * after the other in their usual order. The messages carry the round of the
+ * turn of their sender, so every mailbox reads them in the same order as in a
+ * game played one agent after the other. The order in which the agents
+ * narrate their decisions depends on the threads, the outcome of the game
+ * does not.
+ *
+ * The world and every agent have their own random object, split from the
+ * random object of the game in a fixed order, so nothing draws from a random
+ * object another thread uses and the outcome of a game depends only on its
+ * seed, whether it is played in parallel or not.
+ */
+public class Simulation {
+
+    /**
+     * Works exactly like #Simulation(long, world.WorldMap) except the game is
+     * played on the default 5x5 world.
+     *
+     * @see #Simulation(long, world.WorldMap)
+     */
+    public Simulation(final long seed) {
+        this(seed, WorldMap.defaultMap());
+    }
+
+    /**
+     * Works exactly like #Simulation(long, world.WorldMap, boolean) except the
+     * agents play one after the other.
+     *
+     * @see #Simulation(long, world.WorldMap, boolean)
+     */
+    public Simulation(final long seed, final WorldMap map) {
+        this(seed, map, false);
+    }
+
+    /**
+     * Works exactly like #Simulation(long, world.WorldMap, simulation.Fleet,
+     * boolean) except the teams are the roosters and the donkeys with a
+     * random composition.
+     *
+     * @see #Simulation(long, world.WorldMap, simulation.Fleet, boolean)
+     */
+    public Simulation(final long seed, final WorldMap map, final boolean parallel) {
+        this(seed, map, null, parallel);
+    }
+
+    /**
+     * Works exactly like #Simulation(long, world.WorldSnapshot,
+     * simulation.Fleet, boolean) except the snapshot of the world is made
+     * from the map for this game alone.
+     *
+     * @see #Simulation(long, world.WorldSnapshot, simulation.Fleet, boolean)
+     */
+    public Simulation(final long seed, final WorldMap map, final Fleet fleet, final boolean parallel) {
+        this(seed, WorldSnapshot.of(map), fleet, parallel);
+    }
+
+    /**
+     * Creates the world, the agents and the first clients of a new game.
+     *
+     * @param seed The seed the random objects of the world and the agents are
+     * split from
+     * @param snapshot The static part of the world to play on, which may be
+     * shared with other games
+     * @param fleet The teams of the game or null for the roosters and the
+     * donkeys with a random composition
+     * @param parallel true if the agents decide their moves in parallel, false
+     * if they play one after the other
+     */
+    public Simulation(final long seed, final WorldSnapshot snapshot, final Fleet fleet, final boolean parallel) {
+        _seed = seed;
+        _parallel = parallel;
+        _rand = new SplittableRandom(_seed);
+
+        _world = new World(snapshot, _rand.split());
+        _agents = new ArrayList<>();
+        _listeners = new ArrayList<>();
+        _events = new ConsoleEventSink(EventLevel.DEBUG);
+        _world.setEventSink(_events);
+        _round = 0;
+
+        if (fleet == null) {
+            initializeAgents(randomFleet());
+            _teams = Arrays.asList(ROOSTERS_TEAM, DONKEYS_TEAM);
+        } else {
+            initializeAgents(fleet);
+            _teams = fleet.getTeamNames();
+        }
+        initializeClients();
+        _maxRounds = MAX_ROUNDS_MULTIPLIER * _agents.size();
+    }
+
+    /**
+     * Makes a random fleet of roosters and donkeys. The cases are:
+     *
+     * 1. Two Roosters and one Donkey 2. Two Donkeys and one Rooster 3. Two
+     * Donkeys and two Roosters
+     *
+     * @return the fleet
+     */
+    private Fleet randomFleet() {
+        final Fleet fleet = new Fleet();
+        final int randInt = _rand.nextInt(101);
+        if (randInt > 50) { // 3 agents
+            if (randInt > 50) { // 2 roosters
+                fleet.addTeam(ROOSTERS_TEAM, new RoosterPolicy(), 2);
+                fleet.addTeam(DONKEYS_TEAM, new DonkeyPolicy(), 1);
+            } else { // 2 donkeys
+                fleet.addTeam(DONKEYS_TEAM, new DonkeyPolicy(), 2);
+                fleet.addTeam(ROOSTERS_TEAM, new RoosterPolicy(), 1);
+            }
+        } else { // 4 agents
+            fleet.addTeam(DONKEYS_TEAM, new DonkeyPolicy(), 2);
+            fleet.addTeam(ROOSTERS_TEAM, new RoosterPolicy(), 2);
+        }
+        return fleet;
+    }
+
+    /**
+     * Initializes the agents of the game team by team, in the order the teams
+     * were added to the fleet, and puts them on random places of the world.
+     *
+     * @param fleet The teams of the game
+     */
+    private void initializeAgents(final Fleet fleet) {
+        if (fleet.getSize() < 1 || fleet.getSize() > _world.getPlaces().size()) {
+            throw new IllegalArgumentException("Invalid number of agents for the world: " + fleet.getSize());
+        }
+
+        for (int team = 0; team < fleet.getTeamNames().size(); team++) {
+            for (int id = 1; id <= fleet.getTeamSize(team); id++) {
+                _agents.add(new Agent(fleet.getTeamNames().get(team), fleet.getPolicy(team), id, _rand.split()));
+            }
+        }
+
+        for (Agent agent : _agents) {
+            agent.setWorld(_world);
+            agent.setEventSink(_events);
+
+            agent.initializeState(
+                    new Belief(_world.setRandomAgent(agent)),
+                    new Desire(IntentionType.GET_HIGHEST_SCORE));
+            agent.getBelief().updateVisiblePlaces();
+        }
+    }
+
+    /**
+     * Initializes the clients of the game.
+     */
+    private void initializeClients() {
+        _world.setRandomClients();
+    }
+
+    /**
+     * @param listener the listener to notify as the game goes on
+     */
+    public void addListener(final SimulationListener listener) {
+        _listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to stop notifying
+     */
+    public void removeListener(final SimulationListener listener) {
+        _listeners.remove(listener);
+    }
+
+    /**
+     * Sets the sink the rounds, the turns of the agents and the clients put in
+     * the world are reported to, for example EventSink.NONE for a game that
+     * nobody follows. A sink that needs every event of the game (like the
+     * BinaryEventSink) has to be set before the first round.
+     *
+     * @param events the sink to report the events of the game to
+     */
+    public void setEventSink(final EventSink events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Invalid value for events: " + events);
+        }
+        _events = events;
+        _world.setEventSink(events);
+        for (Agent agent : _agents) {
+            agent.setEventSink(events);
+        }
+    }
+
+    /**
+     * Sets whether the agents reply to the messages they read with confirm or
+     * deny. The replies change nothing in the game but the events reported,
+     * so a game that nobody follows can do without them. The agents reply by
+     * default.
+     *
+     * @param acknowledging true if the agents reply to the messages they read,
+     * false if they only read them
+     */
+    public void setAcknowledging(final boolean acknowledging) {
+        for (Agent agent : _agents) {
+            agent.setAcknowledging(acknowledging);
+        }
+    }
+
+    /**
+     * @return the sink the events of the game are reported to
+     */
+    public EventSink getEventSink() {
+        return _events;
+    }
+
+    /**
+     * Plays a single round, in which the next agent in line plays his turn. In
+     * a parallel game a whole turn is played instead, one round per agent.
+     *
+     * Every ten rounds the world is refilled with clients before the agent
+     * plays. If this was the last round the winning team is determined and the
+     * listeners are notified that the game has ended.
+     *
+     * @return the agent that played the last round
+     */
+    public Agent step() {
+        if (isFinished()) {
+            throw new IllegalStateException("The game has already ended");
+        }
+        if (_round == 0) {
+            _events.gameStarted(_world, getAgents());
+        }
+
+        if (!_parallel) {
+            final Agent agent = _agents.get(_round % _agents.size());
+            agent.setRound(_round);
+            playRound(agent, false);
+            return agent;
+        }
+
+        for (int i = 0; i < _agents.size(); i++) {
+            _agents.get(i).setRound(_round + i);
+        }
+        _agents.parallelStream().forEach(Agent::decide);
+        _agents.parallelStream().forEach(Agent::deliverMessages);
+        for (Agent agent : _agents) {
+            playRound(agent, true);
+        }
+        return _agents.get(_agents.size() - 1);
+    }
+
+    /**
+     * Plays the round of an agent.
+     *
+     * @param agent The agent whose round it is
+     * @param decided true if the agent has already decided what to do and only
+     * has to commit his turn, false if not
+     */
+    private void playRound(final Agent agent, final boolean decided) {
+        _events.roundStarted(_round);
+        if (_round % 10 == 0) {
+            _world.setRandomClients();
+        }
+        if (decided) {
+            agent.commit();
+        } else {
+            agent.go();
+        }
+        _round++;
+
+        for (SimulationListener listener : _listeners) {
+            listener.roundPlayed(this, agent);
+        }
+        if (isFinished()) {
+            gameEnded();
+        }
+    }
+
+    /**
+     * Plays every remaining round of the game.
+     */
+    public void run() {
+        while (!isFinished()) {
+            step();
+        }
+    }
+
+    /**
+     * In case of the ending of a game the winner is determined depending on
+     * the score and the winners desire is set to true.
+     */
+    private void gameEnded() {
+        final String winningTeam = getWinningTeam();
+        for (Agent agent : _agents) {
+            if (agent.getTeam().equals(winningTeam)) {
+                agent.getBelief().setDesireComplete(true);
+            }
+        }
+
+        _events.flush();
+
+        for (SimulationListener listener : _listeners) {
+            listener.gameEnded(this, winningTeam);
+        }
+    }
+
+    /**
+     * @return true if the maximum number of rounds has been played, false if
+     * not
+     */
+    public boolean isFinished() {
+        return _round >= _maxRounds;
+    }
+
+    /**
+     * @return true if every agent has played the same number of rounds, false
+     * if not
+     */
+    public boolean isTurnComplete() {
+        return _round % _agents.size() == 0;
+    }
+
+    /**
+     * Sums the scores of all the agents of a team.
+     *
+     * @param team The team
+     * @return the score of the team
+     */
+    public int getTeamScore(final String team) {
+        int score = 0;
+        for (Agent agent : _agents) {
+            if (agent.getTeam().equals(team)) {
+                score += agent.getScore();
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The team with the highest score is winning. A tie goes to the team that
+     * comes last, so the roosters win only if they have a higher score than
+     * the donkeys.
+     *
+     * @return the team that is currently winning
+     */
+    public String getWinningTeam() {
+        final Map<String, Integer> scores = new HashMap<>();
+        for (Agent agent : _agents) {
+            scores.merge(agent.getTeam(), agent.getScore(), Integer::sum);
+        }
+
+        String winningTeam = null;
+        for (String team : _teams) {
+            if (winningTeam == null || scores.get(team) >= scores.get(winningTeam)) {
+                winningTeam = team;
+            }
+        }
+        return winningTeam;
+    }
+
+    /**
+     * @return the names of the teams of the game, the roosters before the
+     * donkeys or in the order they were added to the fleet
+     */
+    public List<String> getTeams() {
+        return _teams;
+    }
+
+    /**
+     * @return true if the agents decide their moves in parallel, false if they
+     * play one after the other
+     */
+    public boolean isParallel() {
+        return _parallel;
+    }
+
+    /**
+     * @return the seed the game was started with
+     */
+    public long getSeed() {
+        return _seed;
+    }
+
+    /**
+     * @return the number of rounds played so far
+     */
+    public int getRound() {
+        return _round;
+    }
+
+    /**
+     * @return the number of rounds after which the game ends
+     */
+    public int getMaxRounds() {
+        return _maxRounds;
+    }
+
+    /**
+     * @return the world of the game
+     */
+    public World getWorld() {
+        return _world;
+    }
+
+    /**
+     * @return the agents of the game in the order they play
+     */
+    public List<Agent> getAgents() {
+        return Collections.unmodifiableList(_agents);
+    }
+
+    private final long _seed;
+    private final boolean _parallel;
+    private final SplittableRandom _rand;
+    private final World _world;
+    private final List<Agent> _agents;
+    private final List<String> _teams;
+    private final List<SimulationListener> _listeners;
+    private EventSink _events;
+    private final int _maxRounds;
+    private int _round;
+
+    /**
+     * Multiplier for the round limit depending on the number of agents.
+     *
+     * If for example we have 3 agents then there are going to be 300 rounds, if
+     * there are 4 then 400 and so on and so forth.
+     */
+    public static final int MAX_ROUNDS_MULTIPLIER = 100;
+
+    /**
+     * Naming parameters for the two teams.
+     */
+    public static final String ROOSTERS_TEAM = "R";
+    public static final String DONKEYS_TEAM = "D";
+}
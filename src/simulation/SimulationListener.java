@@ -0,0 +1,27 @@
+package simulation;
+
+import agent.Agent;
+
+/**
+ * A SimulationListener observes a Simulation while it runs.
+ *
+ * The GUI is one such observer, headless runs may register none at all.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called after an agent has played his round.
+     *
+     * @param simulation The simulation that played the round
+     * @param agent The agent that played the round
+     */
+    void roundPlayed(Simulation simulation, Agent agent);
+
+    /**
+     * Called once when the simulation reaches its maximum number of rounds.
+     *
+     * @param simulation The simulation that ended
+     * @param winningTeam The team with the highest score
+     */
+    void gameEnded(Simulation simulation, String winningTeam);
+}
@@ -0,0 +1,134 @@
+package simulation;
+
+/**
+ * Keeps the count, the mean, the variance, the minimum and the maximum of a
+ * series of values without keeping the values themselves.
+ *
+ * The mean and the variance are updated value by value (Welford's method), so
+ * they stay accurate over millions of values, and two statistics kept apart
+ * (for example by two threads) can be combined in to one.
+ */
+public class Statistics {
+
+    /**
+     * Statistics start without any values.
+     */
+    public Statistics() {
+        _count = 0;
+        _mean = 0;
+        _squares = 0;
+        _min = Double.POSITIVE_INFINITY;
+        _max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @param value The value to add
+     */
+    public void add(final double value) {
+        _count++;
+        final double delta = value - _mean;
+        _mean += delta / _count;
+        _squares += delta * (value - _mean);
+        _min = Math.min(_min, value);
+        _max = Math.max(_max, value);
+    }
+
+    /**
+     * Adds the values of other statistics to these ones.
+     *
+     * @param other The other statistics
+     */
+    public void combine(final Statistics other) {
+        if (other._count == 0) {
+            return;
+        }
+        if (_count == 0) {
+            _count = other._count;
+            _mean = other._mean;
+            _squares = other._squares;
+            _min = other._min;
+            _max = other._max;
+            return;
+        }
+        final long count = _count + other._count;
+        final double delta = other._mean - _mean;
+        _mean += delta * other._count / count;
+        _squares += other._squares + delta * delta * _count * other._count / count;
+        _count = count;
+        _min = Math.min(_min, other._min);
+        _max = Math.max(_max, other._max);
+    }
+
+    /**
+     * @return the number of values
+     */
+    public long getCount() {
+        return _count;
+    }
+
+    /**
+     * @return the mean of the values or zero if there are none
+     */
+    public double getMean() {
+        return _mean;
+    }
+
+    /**
+     * @return the sample standard deviation of the values or zero if there are
+     * less than two
+     */
+    public double getStandardDeviation() {
+        if (_count < 2) {
+            return 0;
+        }
+        return Math.sqrt(_squares / (_count - 1));
+    }
+
+    /**
+     * The mean lies within this distance of the mean of the values with 95%
+     * confidence, as long as there are enough values for their mean to be
+     * normally distributed.
+     *
+     * @return the half width of the 95% confidence interval of the mean
+     */
+    public double getConfidenceInterval() {
+        if (_count < 2) {
+            return 0;
+        }
+        return Z_95 * getStandardDeviation() / Math.sqrt(_count);
+    }
+
+    /**
+     * @return the smallest value or positive infinity if there are none
+     */
+    public double getMin() {
+        return _min;
+    }
+
+    /**
+     * @return the largest value or negative infinity if there are none
+     */
+    public double getMax() {
+        return _max;
+    }
+
+    /**
+     * @return the mean and its confidence interval
+     */
+    @Override
+    public String toString() {
+        return String.format("%.2f +/- %.2f", getMean(), getConfidenceInterval());
+    }
+
+    private long _count;
+    private double _mean;
+    private double _squares;
+    private double _min;
+    private double _max;
+
+    /**
+     * The quantile of the standard normal distribution for a 95% confidence
+     * interval.
+     */
+    private static final double Z_95 = 1.959964;
+}
@@ -0,0 +1,317 @@
+package simulation;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import world.WorldMap;
+import world.WorldSnapshot;
+
+/**
+ * Plays a tournament of independent games, one seed after the other, spread
+ * over the cores, and reports the statistics of every team with their 95%
+ * confidence intervals.
+ *
+ * The games are played either on a work-stealing pool of platform threads or
+ * each one on a virtual thread of its own (which needs Java 21 or later), so
+ * that the throughput of the two can be compared on the same games.
+ *
+ * Usage: Tournament [games] [seed] [map] [fleet] [threads] [execution]
+ *
+ * where map is either the path of a map description, the path of a world
+ * snapshot or WIDTHxHEIGHT for a randomly generated map of that size and
+ * fleet is either the path of a fleet description or TEAMSxAGENTS for that
+ * many equal teams of that many agents.
+ * A map or a fleet given as - is the default one: the 5x5 world and the
+ * roosters and the donkeys with a random composition. The threads are the
+ * number of games played at the same time, as many as the cores if not given,
+ * and the execution is either forkjoin (the default) or virtual.
+ */
+public class Tournament {
+
+    /**
+     * How the games of a tournament are spread over the cores.
+     */
+    public enum Execution {
+
+        /**
+         * The games are split among a work-stealing pool of as many platform
+         * threads as the games played at the same time.
+         */
+        FORK_JOIN,
+        /**
+         * Every game is played on a virtual thread of its own and no more
+         * games are started while as many as the games played at the same
+         * time are still running.
+         */
+        VIRTUAL_THREADS
+    }
+
+    /**
+     * Works exactly like #Tournament(world.WorldMap, simulation.Fleet, int,
+     * simulation.Tournament.Execution) except the games are played on a
+     * work-stealing pool.
+     *
+     * @see #Tournament(world.WorldMap, simulation.Fleet, int,
+     * simulation.Tournament.Execution)
+     */
+    public Tournament(final WorldMap map, final Fleet fleet, final int threads) {
+        this(map, fleet, threads, Execution.FORK_JOIN);
+    }
+
+    /**
+     * @param map The map every game is played on
+     * @param fleet The teams of every game or null for the roosters and the
+     * donkeys with a random composition
+     * @param threads The number of games played at the same time
+     * @param execution How the games are spread over the cores
+     */
+    public Tournament(final WorldMap map, final Fleet fleet, final int threads, final Execution execution) {
+        this(WorldSnapshot.of(map), fleet, threads, execution);
+    }
+
+    /**
+     * The static part of the world is shared by all the games, so it is only
+     * built (or mapped) once for the whole tournament.
+     *
+     * @param world The snapshot of the world every game is played on
+     * @param fleet The teams of every game or null for the roosters and the
+     * donkeys with a random composition
+     * @param threads The number of games played at the same time
+     * @param execution How the games are spread over the cores
+     */
+    public Tournament(final WorldSnapshot world, final Fleet fleet, final int threads, final Execution execution) {
+        if (world == null) {
+            throw new IllegalArgumentException("Invalid value for world: " + world);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid value for threads: " + threads);
+        }
+        if (execution == null) {
+            throw new IllegalArgumentException("Invalid value for execution: " + execution);
+        }
+        _world = world;
+        _fleet = fleet == null ? null : fleet.toString();
+        _threads = threads;
+        _execution = execution;
+    }
+
+    /**
+     * Plays the games of the tournament. Every game is played by a single
+     * thread, its agents one after the other, and nobody follows it. The
+     * results of the games are added to the statistics as soon as they end,
+     * so they are never kept.
+     *
+     * @param firstSeed The seed of the first game, the seeds of the others
+     * follow it
+     * @param games The number of games
+     * @return the statistics of the games
+     * @throws UnsupportedOperationException if the games are to be played on
+     * virtual threads and the Java runtime has none
+     */
+    public TournamentResults play(final long firstSeed, final int games) {
+        switch (_execution) {
+            case FORK_JOIN:
+                return playOnPool(firstSeed, games);
+            case VIRTUAL_THREADS:
+                return playOnVirtualThreads(firstSeed, games);
+            default:
+                throw new IllegalArgumentException("Invalid value for execution: " + _execution);
+        }
+    }
+
+    /**
+     * Splits the seeds of the games among a work-stealing pool. Every thread
+     * adds the results of its games to statistics of its own, which are
+     * combined at the end.
+     */
+    private TournamentResults playOnPool(final long firstSeed, final int games) {
+        final ForkJoinPool pool = new ForkJoinPool(_threads);
+        try {
+            return pool.submit(() -> LongStream.range(firstSeed, firstSeed + games)
+                    .parallel()
+                    .mapToObj(this::playGame)
+                    .collect(TournamentResults::new, TournamentResults::add, TournamentResults::combine))
+                    .get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("A game of the tournament failed", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Starts a virtual thread for every game. Once as many games as the games
+     * played at the same time are running, the next game only starts when one
+     * of them ends, so no games pile up waiting for a core. The results of the
+     * games are added to the common statistics one at a time.
+     *
+     * Every virtual thread has a path finder of its own (the path finders are
+     * kept per thread), which only lives as long as its game.
+     */
+    private TournamentResults playOnVirtualThreads(final long firstSeed, final int games) {
+        final ExecutorService executor = newVirtualThreadExecutor();
+        final Semaphore running = new Semaphore(_threads);
+        final TournamentResults results = new TournamentResults();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            for (long seed = firstSeed; seed < firstSeed + games && failure.get() == null; seed++) {
+                running.acquire();
+                final long gameSeed = seed;
+                executor.execute(() -> {
+                    try {
+                        final GameResult result = playGame(gameSeed);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    } catch (RuntimeException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        running.release();
+                    }
+                });
+            }
+            running.acquire(_threads);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted", ex);
+        } finally {
+            executor.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("A game of the tournament failed", failure.get());
+        }
+        return results;
+    }
+
+    /**
+     * The virtual threads are looked up at run time, so that the game still
+     * runs on the Java versions before them.
+     *
+     * @return an executor that starts a virtual thread for every task
+     * @throws UnsupportedOperationException if the Java runtime has no virtual
+     * threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later", ex);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Could not create the virtual threads", ex);
+        }
+    }
+
+    /**
+     * Plays a single game of the tournament.
+     *
+     * Every game gets its own copy of the fleet, so that the policies of the
+     * teams never see two games at once. Nobody reads the replies to the
+     * messages of the agents, so the agents do not send them.
+     *
+     * @param seed The seed of the game
+     * @return the result of the game
+     */
+    GameResult playGame(final long seed) {
+        final Simulation simulation = new Simulation(seed, _world,
+                _fleet == null ? null : Fleet.parse(_fleet), false);
+        final ActionCounter counter = new ActionCounter();
+        simulation.setEventSink(counter);
+        simulation.setAcknowledging(false);
+        simulation.run();
+        return new GameResult(simulation, counter);
+    }
+
+    /**
+     * @return the number of games played at the same time
+     */
+    public int getThreads() {
+        return _threads;
+    }
+
+    /**
+     * @return how the games are spread over the cores
+     */
+    public Execution getExecution() {
+        return _execution;
+    }
+
+    /**
+     * @param args the number of games to play, the seed of the first game, the
+     * map and the fleet to play with, the number of threads and the execution
+     * @throws IOException if the map or the fleet description could not be
+     * read
+     */
+    public static void main(String args[]) throws IOException {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : System.currentTimeMillis();
+        final WorldSnapshot world = BatchRunner.loadWorld(args.length > 2 ? args[2] : DEFAULT, seed);
+        final Fleet fleet = args.length > 3 && !args[3].equals(DEFAULT) ? loadFleet(args[3]) : null;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        final Execution execution = args.length > 5 ? parseExecution(args[5]) : Execution.FORK_JOIN;
+
+        final Tournament tournament = new Tournament(world, fleet, threads, execution);
+        final long start = System.nanoTime();
+        final TournamentResults results = tournament.play(seed, games);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.print(results);
+        System.out.println(Long.toString(results.getGames()) + " games on " + Integer.toString(threads)
+                + (execution == Execution.VIRTUAL_THREADS ? " virtual" : "")
+                + " threads in " + String.format("%.1f", seconds) + " s, "
+                + String.format("%.1f", results.getGames() / seconds) + " games/s");
+    }
+
+    /**
+     * @param execution forkjoin or virtual
+     * @return the execution given in the command line
+     */
+    private static Execution parseExecution(final String execution) {
+        switch (execution) {
+            case "forkjoin":
+                return Execution.FORK_JOIN;
+            case "virtual":
+                return Execution.VIRTUAL_THREADS;
+            default:
+                throw new IllegalArgumentException("Invalid value for execution: " + execution);
+        }
+    }
+
+    /**
+     * Loads the fleet given in the command line.
+     *
+     * @param fleet Either the path of a fleet description or TEAMSxAGENTS
+     * @return the fleet
+     * @throws IOException if the fleet description could not be read
+     */
+    static Fleet loadFleet(final String fleet) throws IOException {
+        final Matcher size = Pattern.compile("(\\d+)x(\\d+)").matcher(fleet);
+        if (size.matches()) {
+            return Fleet.uniform(Integer.parseInt(size.group(1)), Integer.parseInt(size.group(2)));
+        }
+        return Fleet.load(Paths.get(fleet));
+    }
+
+    private final WorldSnapshot _world;
+    private final String _fleet;
+    private final int _threads;
+    private final Execution _execution;
+
+    /**
+     * The value of a map or a fleet in the command line that stands for the
+     * default one.
+     */
+    private static final String DEFAULT = "-";
+}
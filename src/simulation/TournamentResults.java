@@ -0,0 +1,135 @@
+package simulation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The statistics of the games of a tournament for every team: how often it
+ * won, its score, its deliveries and its crashes.
+ *
+ * The results of the games are added one by one as the games end and results
+ * kept apart (for example by two threads) can be combined in to one, so the
+ * results of a tournament are collected like the elements of a stream.
+ */
+public class TournamentResults {
+
+    /**
+     * The results start without any games.
+     */
+    public TournamentResults() {
+        _games = 0;
+        _teams = new TreeMap<>();
+    }
+
+    /**
+     * @param result The result of a game
+     */
+    public void add(final GameResult result) {
+        _games++;
+        for (String team : result.getTeams()) {
+            final TeamStatistics statistics = _teams.computeIfAbsent(team, (name) -> new TeamStatistics());
+            statistics.wins.add(team.equals(result.getWinningTeam()) ? 1 : 0);
+            statistics.scores.add(result.getScore(team));
+            statistics.deliveries.add(result.getDeliveries(team));
+            statistics.crashes.add(result.getCrashes(team));
+        }
+    }
+
+    /**
+     * Adds the games of other results to these ones.
+     *
+     * @param other The other results
+     */
+    public void combine(final TournamentResults other) {
+        _games += other._games;
+        for (Map.Entry<String, TeamStatistics> entry : other._teams.entrySet()) {
+            final TeamStatistics statistics = _teams.computeIfAbsent(entry.getKey(), (name) -> new TeamStatistics());
+            statistics.wins.combine(entry.getValue().wins);
+            statistics.scores.combine(entry.getValue().scores);
+            statistics.deliveries.combine(entry.getValue().deliveries);
+            statistics.crashes.combine(entry.getValue().crashes);
+        }
+    }
+
+    /**
+     * @return the number of games
+     */
+    public long getGames() {
+        return _games;
+    }
+
+    /**
+     * @return the names of the teams that played, in alphabetical order
+     */
+    public Iterable<String> getTeams() {
+        return _teams.keySet();
+    }
+
+    /**
+     * @param team The team
+     * @return the statistics of the games the team won (1) or lost (0), whose
+     * mean is the share of the games the team won
+     */
+    public Statistics getWins(final String team) {
+        return _teams.get(team).wins;
+    }
+
+    /**
+     * @param team The team
+     * @return the statistics of the scores of the team
+     */
+    public Statistics getScores(final String team) {
+        return _teams.get(team).scores;
+    }
+
+    /**
+     * @param team The team
+     * @return the statistics of the deliveries of the team
+     */
+    public Statistics getDeliveries(final String team) {
+        return _teams.get(team).deliveries;
+    }
+
+    /**
+     * @param team The team
+     * @return the statistics of the crashes of the team
+     */
+    public Statistics getCrashes(final String team) {
+        return _teams.get(team).crashes;
+    }
+
+    /**
+     * @return one line per team with the means and the confidence intervals of
+     * its statistics
+     */
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, TeamStatistics> entry : _teams.entrySet()) {
+            final TeamStatistics statistics = entry.getValue();
+            text.append("Team ").append(entry.getKey())
+                    .append(": won ").append(String.format("%.1f%% +/- %.1f%%",
+                            statistics.wins.getMean() * 100, statistics.wins.getConfidenceInterval() * 100))
+                    .append(", score ").append(statistics.scores)
+                    .append(" (sd ").append(String.format("%.2f", statistics.scores.getStandardDeviation())).append(")")
+                    .append(", deliveries ").append(statistics.deliveries)
+                    .append(", crashes ").append(statistics.crashes)
+                    .append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    /**
+     * The statistics of a team.
+     */
+    private static class TeamStatistics {
+
+        final Statistics wins = new Statistics();
+        final Statistics scores = new Statistics();
+        final Statistics deliveries = new Statistics();
+        final Statistics crashes = new Statistics();
+    }
+
+    private long _games;
+    private final Map<String, TeamStatistics> _teams;
+}
@@ -0,0 +1,279 @@
+package utilities.eventlog;
+
+import agent.Action;
+import agent.ActionResult;
+import agent.Agent;
+import agent.AgentMessage;
+import agent.Mode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import world.Client;
+import world.Place;
+import world.World;
+import world.WorldGrid;
+
+/**
+ * Records the decisions of a game in a compact binary log that a Replay can
+ * play back later: the world and the agents at the start, the rounds, the
+ * mode changes, the messages, the result of every action and the clients put
+ * in the world. The layout of the log is described in EventLogFormat.
+ *
+ * The records are gathered in a direct buffer and appended to the channel
+ * whenever the buffer fills up and when the sink is flushed, which the
+ * simulation does at the end of the game. The sink has to be set before the
+ * first round of the game, so that it knows the agents.
+ */
+public class BinaryEventSink implements EventSink, Closeable {
+
+    /**
+     * Works exactly like #BinaryEventSink(java.nio.channels.WritableByteChannel,
+     * int) except the buffer holds DEFAULT_CAPACITY bytes.
+     *
+     * @see #BinaryEventSink(java.nio.channels.WritableByteChannel, int)
+     */
+    public BinaryEventSink(final WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param channel The channel to append the log to
+     * @param capacity The number of bytes after which the buffer is written
+     * out
+     */
+    public BinaryEventSink(final WritableByteChannel channel, final int capacity) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Invalid value for channel: " + channel);
+        }
+        if (capacity < 64) {
+            throw new IllegalArgumentException("Invalid value for capacity: " + capacity);
+        }
+        _channel = channel;
+        _buffer = ByteBuffer.allocateDirect(capacity);
+        _agents = new IdentityHashMap<>();
+        _buffer.putInt(EventLogFormat.MAGIC);
+        _buffer.putShort(EventLogFormat.VERSION);
+    }
+
+    /**
+     * Creates the file of a log, or empties it if it exists.
+     *
+     * @param path The path of the file
+     * @return the sink that writes to the file
+     * @throws IOException if the file could not be opened
+     */
+    public static BinaryEventSink open(final Path path) throws IOException {
+        return new BinaryEventSink(FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE));
+    }
+
+    @Override
+    public synchronized void gameStarted(final World world, final List<Agent> agents) {
+        final byte[] map = world.getMap().toString().getBytes(StandardCharsets.UTF_8);
+        begin(EventLogFormat.GAME_STARTED, map.length + EventLogFormat.MAX_VAR_INT_BYTES * 2);
+        EventLogFormat.putVarInt(_buffer, map.length);
+        _buffer.put(map);
+
+        EventLogFormat.putVarInt(_buffer, agents.size());
+        for (Agent agent : agents) {
+            _agents.put(agent, _agents.size());
+            final byte[] team = agent.getTeam().getBytes(StandardCharsets.UTF_8);
+            reserve(team.length + EventLogFormat.MAX_VAR_INT_BYTES * 5);
+            EventLogFormat.putVarInt(_buffer, team.length);
+            _buffer.put(team);
+            EventLogFormat.putVarInt(_buffer, agent.getId());
+            EventLogFormat.putVarInt(_buffer, agent.getBelief().getCurrentPlace().getId());
+            EventLogFormat.putVarInt(_buffer, EventLogFormat.indexOf(EventLogFormat.MODES, agent.getMode()));
+            EventLogFormat.putSignedVarInt(_buffer, agent.getScore());
+        }
+
+        final WorldGrid grid = world.getGrid();
+        int clients = 0;
+        for (int id = 0; id < grid.getSize(); id++) {
+            if (grid.getClientCount(id) == 0) {
+                continue;
+            }
+            for (Client client : grid.getPlace(id).getClientList()) {
+                if (!client.isTaken()) {
+                    clients++;
+                }
+            }
+        }
+        reserve(EventLogFormat.MAX_VAR_INT_BYTES);
+        EventLogFormat.putVarInt(_buffer, clients);
+        for (int id = 0; id < grid.getSize(); id++) {
+            if (grid.getClientCount(id) == 0) {
+                continue;
+            }
+            final Place place = grid.getPlace(id);
+            for (Client client : place.getClientList()) {
+                if (!client.isTaken()) {
+                    reserve(EventLogFormat.MAX_VAR_INT_BYTES * 3);
+                    putClient(client, place);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void roundStarted(final int round) {
+        begin(EventLogFormat.ROUND_STARTED, EventLogFormat.MAX_VAR_INT_BYTES);
+        EventLogFormat.putVarInt(_buffer, round);
+    }
+
+    @Override
+    public synchronized void turnEnded(final Agent agent) {
+        begin(EventLogFormat.TURN_ENDED, EventLogFormat.MAX_VAR_INT_BYTES);
+        EventLogFormat.putVarInt(_buffer, indexOf(agent));
+    }
+
+    @Override
+    public synchronized void modeChanged(final Agent agent, final Mode previousMode, final Mode mode) {
+        begin(EventLogFormat.MODE_CHANGED, EventLogFormat.MAX_VAR_INT_BYTES * 2);
+        EventLogFormat.putVarInt(_buffer, indexOf(agent));
+        EventLogFormat.putVarInt(_buffer, EventLogFormat.indexOf(EventLogFormat.MODES, mode));
+    }
+
+    @Override
+    public synchronized void messageSent(final AgentMessage message) {
+        final List<Place> content = message.getContent();
+        begin(EventLogFormat.MESSAGE_SENT, EventLogFormat.MAX_VAR_INT_BYTES * (4 + content.size()));
+        putMessage(message);
+        EventLogFormat.putVarInt(_buffer, content.size());
+        for (Place place : content) {
+            EventLogFormat.putVarInt(_buffer, place.getId());
+        }
+    }
+
+    @Override
+    public synchronized void messageReplied(final AgentMessage message) {
+        begin(EventLogFormat.MESSAGE_REPLIED, EventLogFormat.MAX_VAR_INT_BYTES * 3);
+        putMessage(message);
+    }
+
+    @Override
+    public synchronized void actionRun(final Agent agent, final Action action, final ActionResult result) {
+        begin(EventLogFormat.ACTION_RUN, EventLogFormat.MAX_VAR_INT_BYTES * 6);
+        EventLogFormat.putVarInt(_buffer, indexOf(agent));
+        EventLogFormat.putVarInt(_buffer, EventLogFormat.indexOf(EventLogFormat.ACTIONS, action.getType()));
+        EventLogFormat.putVarInt(_buffer, result.isSucceeded() ? 1 : 0);
+        EventLogFormat.putSignedVarInt(_buffer, result.getTotalCost());
+        EventLogFormat.putVarInt(_buffer, result.getNextPlace().getId());
+        EventLogFormat.putSignedVarInt(_buffer, result.getClient() == null ? -1 : result.getClient().getId());
+    }
+
+    @Override
+    public synchronized void clientAdded(final Client client, final Place place) {
+        begin(EventLogFormat.CLIENT_ADDED, EventLogFormat.MAX_VAR_INT_BYTES * 3);
+        putClient(client, place);
+    }
+
+    /**
+     * Appends the buffer to the channel.
+     *
+     * @throws UncheckedIOException if the channel failed
+     */
+    @Override
+    public synchronized void flush() {
+        writeBuffer();
+    }
+
+    /**
+     * Appends the buffer to the channel and closes the channel.
+     *
+     * @throws IOException if the channel failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writeBuffer();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            _channel.close();
+        }
+    }
+
+    /**
+     * Makes room for a record and writes its tag.
+     *
+     * @param tag The tag of the record
+     * @param maxBytes The most bytes the values of the record can take
+     */
+    private void begin(final byte tag, final int maxBytes) {
+        reserve(maxBytes + 1);
+        _buffer.put(tag);
+    }
+
+    /**
+     * Writes out the buffer if it has less room than asked for and grows it if
+     * it is too small altogether.
+     *
+     * @param bytes The number of bytes to make room for
+     */
+    private void reserve(final int bytes) {
+        if (_buffer.remaining() >= bytes) {
+            return;
+        }
+        writeBuffer();
+        if (_buffer.capacity() < bytes) {
+            _buffer = ByteBuffer.allocateDirect(Math.max(bytes, _buffer.capacity() * 2));
+        }
+    }
+
+    private void writeBuffer() {
+        _buffer.flip();
+        try {
+            while (_buffer.hasRemaining()) {
+                _channel.write(_buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        _buffer.clear();
+    }
+
+    private void putMessage(final AgentMessage message) {
+        EventLogFormat.putVarInt(_buffer, indexOf(message.getSender()));
+        EventLogFormat.putVarInt(_buffer, indexOf(message.getRecipient()));
+        EventLogFormat.putVarInt(_buffer, EventLogFormat.indexOf(EventLogFormat.MESSAGE_TYPES, message.getType()));
+    }
+
+    private void putClient(final Client client, final Place place) {
+        EventLogFormat.putVarInt(_buffer, client.getId());
+        EventLogFormat.putVarInt(_buffer, place.getId());
+        EventLogFormat.putVarInt(_buffer, client.getDestination().getId());
+    }
+
+    /**
+     * @param agent The agent
+     * @return the index of the agent in the order the agents play
+     */
+    private int indexOf(final Agent agent) {
+        final Integer index = _agents.get(agent);
+        if (index == null) {
+            throw new IllegalStateException("The sink was set after the game started: " + agent.getName());
+        }
+        return index;
+    }
+
+    private final WritableByteChannel _channel;
+    private final Map<Agent, Integer> _agents;
+    private ByteBuffer _buffer;
+
+    /**
+     * The default number of bytes after which the buffer is written out.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+}
@@ -0,0 +1,84 @@
+package utilities.eventlog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Narrates the events of a game in to a buffer and writes the buffer out in
+ * large batches instead of event by event.
+ *
+ * The buffer is written out whenever it fills up and when the sink is flushed,
+ * which the simulation does at the end of the game.
+ */
+public class BufferedEventSink extends TextEventSink {
+
+    /**
+     * Works exactly like #BufferedEventSink(java.io.Writer,
+     * utilities.eventlog.EventLevel, int) except the buffer holds
+     * DEFAULT_CAPACITY characters.
+     *
+     * @see #BufferedEventSink(java.io.Writer, utilities.eventlog.EventLevel,
+     * int)
+     */
+    public BufferedEventSink(final Writer out, final EventLevel level) {
+        this(out, level, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param out The writer to write the events to
+     * @param level The most detailed level of the events to narrate
+     * @param capacity The number of characters after which the buffer is
+     * written out
+     */
+    public BufferedEventSink(final Writer out, final EventLevel level, final int capacity) {
+        super(level);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid value for capacity: " + capacity);
+        }
+        _out = out;
+        _capacity = capacity;
+        _buffer = new StringBuilder(capacity);
+    }
+
+    @Override
+    protected synchronized void write(final CharSequence text) {
+        _buffer.append(text);
+        if (_buffer.length() >= _capacity) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Writes out the buffer and flushes the writer.
+     *
+     * @throws UncheckedIOException if the writer failed
+     */
+    @Override
+    public synchronized void flush() {
+        writeBuffer();
+        try {
+            _out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            _out.append(_buffer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        _buffer.setLength(0);
+    }
+
+    private final Writer _out;
+    private final int _capacity;
+    private final StringBuilder _buffer;
+
+    /**
+     * The default number of characters after which the buffer is written out.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+}
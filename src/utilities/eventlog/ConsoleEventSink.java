@@ -0,0 +1,27 @@
+package utilities.eventlog;
+
+/**
+ * Narrates the events of a game on the standard output as they happen.
+ *
+ * The standard output is looked up for every event, so the events follow it
+ * when it is redirected (like the GUI does with its console).
+ */
+public class ConsoleEventSink extends TextEventSink {
+
+    /**
+     * @param level The most detailed level of the events to narrate
+     */
+    public ConsoleEventSink(final EventLevel level) {
+        super(level);
+    }
+
+    @Override
+    protected void write(final CharSequence text) {
+        System.out.print(text);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
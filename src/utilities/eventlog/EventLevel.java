@@ -0,0 +1,32 @@
+package utilities.eventlog;
+
+/**
+ * The levels of detail of the events of a game, from the least to the most
+ * detailed.
+ */
+public enum EventLevel {
+
+    /**
+     * No events at all.
+     */
+    OFF,
+    /**
+     * The rounds, the moves and the decisions of the agents and the messages
+     * they send.
+     */
+    INFO,
+    /**
+     * Every step of the agents' turns: the intentions they run, the actions
+     * they execute and the messages they read.
+     */
+    DEBUG;
+
+    /**
+     * @param level The level of an event
+     * @return true if events of the level given are shown at this level, false
+     * if not
+     */
+    public boolean includes(final EventLevel level) {
+        return level != OFF && level.ordinal() <= ordinal();
+    }
+}
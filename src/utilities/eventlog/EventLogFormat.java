@@ -0,0 +1,131 @@
+package utilities.eventlog;
+
+import agent.ActionType;
+import agent.MessageType;
+import agent.Mode;
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of the binary event log shared by the BinaryEventSink that writes
+ * it and the Replay that reads it.
+ *
+ * A log starts with MAGIC and VERSION (4 and 2 bytes) and goes on with one
+ * record per event: a tag byte followed by the values of the event. Every
+ * value is a variable-length integer (7 bits per byte, the highest bit set on
+ * every byte but the last), zigzag encoded if it may be negative, and texts
+ * are their length followed by their UTF-8 bytes. The records are:
+ *
+ * <pre>
+ * GAME_STARTED   map agents {team id place mode score}* clients {id place destination}*
+ * ROUND_STARTED  round
+ * TURN_ENDED     agent
+ * MODE_CHANGED   agent mode
+ * MESSAGE_SENT   sender recipient type places {place}*
+ * MESSAGE_REPLIED sender recipient type
+ * ACTION_RUN     agent action succeeded cost(signed) place client(signed)
+ * CLIENT_ADDED   client place destination
+ * </pre>
+ *
+ * where map is the text description of the map, an agent is the index of the
+ * agent in the order the agents play, a place is the id of the place and a
+ * mode, an action or a type is its index in MODES, ACTIONS or MESSAGE_TYPES.
+ * The client of an action is -1 unless the action embarked or disembarked a
+ * client.
+ */
+final class EventLogFormat {
+
+    private EventLogFormat() {
+    }
+
+    /**
+     * Writes a variable-length integer.
+     *
+     * @param buffer The buffer to write to
+     * @param value The value (taken as unsigned)
+     */
+    static void putVarInt(final ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a zigzag encoded variable-length integer, which keeps small
+     * negative values short as well.
+     *
+     * @param buffer The buffer to write to
+     * @param value The value
+     */
+    static void putSignedVarInt(final ByteBuffer buffer, final int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * @param value The zigzag encoded value
+     * @return the value that was encoded
+     */
+    static int decodeSigned(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * The tables keep the order of the first version of the log, which is not
+     * the order the constants are declared in, so the index of a constant is
+     * looked up rather than taken from its ordinal.
+     *
+     * @param values The values of a table
+     * @param value The value to look up
+     * @return the index of the value in the table
+     */
+    static <T extends Enum<T>> int indexOf(final T[] values, final T value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for value: " + value);
+    }
+
+    static final int MAGIC = 0x54584C47;
+    static final short VERSION = 1;
+
+    static final byte GAME_STARTED = 1;
+    static final byte ROUND_STARTED = 2;
+    static final byte TURN_ENDED = 3;
+    static final byte MODE_CHANGED = 4;
+    static final byte MESSAGE_SENT = 5;
+    static final byte MESSAGE_REPLIED = 6;
+    static final byte ACTION_RUN = 7;
+    static final byte CLIENT_ADDED = 8;
+
+    /**
+     * The longest a variable-length integer can be.
+     */
+    static final int MAX_VAR_INT_BYTES = 5;
+
+    static final Mode[] MODES = {
+        Mode.ROAM,
+        Mode.KNOWS_CLIENT_LOCATION,
+        Mode.TRANSFERING,
+        Mode.COMPETITIVE,
+        Mode.OPPONENT_COOPERATIVE
+    };
+
+    static final ActionType[] ACTIONS = {
+        ActionType.EMBARK,
+        ActionType.DISEMBARK,
+        ActionType.UP,
+        ActionType.DOWN,
+        ActionType.LEFT,
+        ActionType.RIGHT
+    };
+
+    static final MessageType[] MESSAGE_TYPES = {
+        MessageType.CLIENT_LOCATION,
+        MessageType.ASSIST_IN_BLOCKING,
+        MessageType.CONFIRM,
+        MessageType.DENY
+    };
+}
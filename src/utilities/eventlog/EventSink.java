@@ -0,0 +1,163 @@
+package utilities.eventlog;
+
+import agent.Action;
+import agent.ActionResult;
+import agent.Agent;
+import agent.AgentMessage;
+import agent.Intention;
+import agent.Mode;
+import java.util.List;
+import world.Client;
+import world.Place;
+import world.World;
+
+/**
+ * The EventSink receives the events of a game as they happen.
+ *
+ * Every event is a method call with the objects involved, so raising an event
+ * builds nothing: it is up to the sink to turn the event in to text (like the
+ * TextEventSink), count it or ignore it. Every method does nothing by default,
+ * so a sink only overrides the events it is interested in and NONE costs
+ * nothing at all.
+ *
+ * The agents of a parallel game decide at the same time, so the events of
+ * deciding may be raised by many threads at once.
+ */
+public interface EventSink {
+
+    /**
+     * Raised once before the first round of a game, so a sink can take down
+     * the world and the agents as they are at the start.
+     *
+     * @param world The world of the game
+     * @param agents The agents of the game in the order they play
+     */
+    default void gameStarted(final World world, final List<Agent> agents) {
+    }
+
+    /**
+     * @param round The round that starts
+     */
+    default void roundStarted(final int round) {
+    }
+
+    /**
+     * @param agent The agent whose turn ended
+     */
+    default void turnEnded(final Agent agent) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param previousMode The mode he was in
+     * @param mode The mode he is set at
+     */
+    default void modeChanged(final Agent agent, final Mode previousMode, final Mode mode) {
+    }
+
+    /**
+     * @param message The message that was sent
+     */
+    default void messageSent(final AgentMessage message) {
+    }
+
+    /**
+     * @param message The confirm or deny reply that was sent
+     */
+    default void messageReplied(final AgentMessage message) {
+    }
+
+    /**
+     * @param message The message that was read by its recipient
+     */
+    default void messageRead(final AgentMessage message) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param intention The intention the agent runs towards its short term
+     * goal
+     */
+    default void intentionRun(final Agent agent, final Intention intention) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param destination The place the agent found a path for
+     */
+    default void pathFound(final Agent agent, final Place destination) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param destination The place the agent could not find a path for
+     */
+    default void pathNotFound(final Agent agent, final Place destination) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param place The flanking place the agent stayed at
+     */
+    default void stayed(final Agent agent, final Place place) {
+    }
+
+    /**
+     * @param agent The agent that lost sight of the opponent
+     */
+    default void opponentLost(final Agent agent) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param action The action the agent is executing
+     */
+    default void actionExecuting(final Agent agent, final Action action) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param action The action the agent executed successfully
+     */
+    default void actionExecuted(final Agent agent, final Action action) {
+    }
+
+    /**
+     * Raised for every action an agent runs, whether it succeeded or not.
+     *
+     * The agent fills in the same result for all his actions, so it must not
+     * be kept after the call.
+     *
+     * @param agent The agent
+     * @param action The action the agent ran
+     * @param result The result of the action
+     */
+    default void actionRun(final Agent agent, final Action action, final ActionResult result) {
+    }
+
+    /**
+     * @param client The client that was put in the world
+     * @param place The town the client waits at
+     */
+    default void clientAdded(final Client client, final Place place) {
+    }
+
+    /**
+     * @param agent The agent
+     * @param place The place the agent ended up at
+     */
+    default void moved(final Agent agent, final Place place) {
+    }
+
+    /**
+     * Writes out any events the sink holds back.
+     */
+    default void flush() {
+    }
+
+    /**
+     * The sink that ignores every event.
+     */
+    EventSink NONE = new EventSink() {
+    };
+}
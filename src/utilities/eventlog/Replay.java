@@ -0,0 +1,526 @@
+package utilities.eventlog;
+
+import agent.ActionType;
+import agent.Mode;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import utilities.generalutils.Coordinates;
+import world.WorldMap;
+
+/**
+ * The Replay plays back the log of a BinaryEventSink and rebuilds the state of
+ * the game round by round: where the agents are, their modes, their scores,
+ * the clients they carry and the clients waiting in the towns.
+ *
+ * Nothing is simulated, the results of the actions are taken from the log, so
+ * playing back a game only costs reading it. The state of a round is the state
+ * after all the records of the round. The agents of a parallel game decide a
+ * whole turn before its first round, so their mode changes and messages show
+ * up at the end of the round before.
+ *
+ * Usage: Replay log [round]
+ *
+ * prints the state of the round given or of the last round of the log.
+ */
+public class Replay implements Closeable {
+
+    /**
+     * Reads the start of the game from the log.
+     *
+     * @param channel The channel of the log, at the start of the log
+     * @throws IOException if the log could not be read or is not a log
+     */
+    public Replay(final SeekableByteChannel channel) throws IOException {
+        _channel = channel;
+        _buffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+        _buffer.limit(0);
+
+        if (!ensure(6) || _buffer.getInt() != EventLogFormat.MAGIC) {
+            throw new IOException("Invalid event log");
+        }
+        final short version = _buffer.getShort();
+        if (version != EventLogFormat.VERSION) {
+            throw new IOException("Invalid event log version: " + version);
+        }
+        if (nextByte() != EventLogFormat.GAME_STARTED) {
+            throw new IOException("Invalid event log: the game start is missing");
+        }
+
+        _map = WorldMap.parse(getString());
+        final int agents = getVarInt();
+        _teams = new String[agents];
+        _ids = new int[agents];
+        _startPlaces = new int[agents];
+        _startModes = new int[agents];
+        _startScores = new int[agents];
+        for (int i = 0; i < agents; i++) {
+            _teams[i] = getString();
+            _ids[i] = getVarInt();
+            _startPlaces[i] = getVarInt();
+            _startModes[i] = getVarInt();
+            _startScores[i] = EventLogFormat.decodeSigned(getVarInt());
+        }
+        _places = new int[agents];
+        _modes = new int[agents];
+        _scores = new int[agents];
+        _onboard = new int[agents];
+        _onboardDestinations = new int[agents];
+
+        _startClientPlaces = new int[_map.getMaxClients()];
+        _startClientDestinations = new int[_map.getMaxClients()];
+        Arrays.fill(_startClientPlaces, NONE);
+        final int clients = getVarInt();
+        for (int i = 0; i < clients; i++) {
+            final int client = getVarInt();
+            _startClientPlaces[client] = getVarInt();
+            _startClientDestinations[client] = getVarInt();
+        }
+        _clientPlaces = new int[_map.getMaxClients()];
+        _clientDestinations = new int[_map.getMaxClients()];
+
+        _start = _channel.position() - _buffer.remaining();
+        reset();
+    }
+
+    /**
+     * @param path The path of the log
+     * @return the replay of the log
+     * @throws IOException if the log could not be read or is not a log
+     */
+    public static Replay open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new Replay(channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Goes back to the start of the game, before the first round.
+     *
+     * @throws IOException if the log could not be read
+     */
+    public void reset() throws IOException {
+        _channel.position(_start);
+        _buffer.limit(0);
+        System.arraycopy(_startPlaces, 0, _places, 0, _places.length);
+        System.arraycopy(_startModes, 0, _modes, 0, _modes.length);
+        System.arraycopy(_startScores, 0, _scores, 0, _scores.length);
+        Arrays.fill(_onboard, NONE);
+        Arrays.fill(_onboardDestinations, NONE);
+        System.arraycopy(_startClientPlaces, 0, _clientPlaces, 0, _clientPlaces.length);
+        System.arraycopy(_startClientDestinations, 0, _clientDestinations, 0, _clientDestinations.length);
+        _round = NONE;
+        _messages = 0;
+        _actions = 0;
+    }
+
+    /**
+     * Plays back the next round.
+     *
+     * @return true if a round was played back, false if the log has ended
+     * @throws IOException if the log could not be read
+     */
+    public boolean nextRound() throws IOException {
+        boolean started = false;
+        while (ensure(1)) {
+            if (_buffer.get(_buffer.position()) == EventLogFormat.ROUND_STARTED) {
+                if (started) {
+                    break;
+                }
+                started = true;
+            }
+            readRecord();
+        }
+        return started;
+    }
+
+    /**
+     * Plays back the log up to a round. Going back to an earlier round plays
+     * back the log from the start.
+     *
+     * @param round The round
+     * @return true if the round was reached, false if the log ended before it
+     * @throws IOException if the log could not be read
+     */
+    public boolean seek(final int round) throws IOException {
+        if (round < _round) {
+            reset();
+        }
+        while (_round < round) {
+            if (!nextRound()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a record and applies it to the state of the game.
+     */
+    private void readRecord() throws IOException {
+        final byte tag = nextByte();
+        switch (tag) {
+            case EventLogFormat.ROUND_STARTED:
+                _round = getVarInt();
+                break;
+            case EventLogFormat.TURN_ENDED:
+                getVarInt();
+                break;
+            case EventLogFormat.MODE_CHANGED: {
+                final int agent = getVarInt();
+                _modes[agent] = getVarInt();
+                break;
+            }
+            case EventLogFormat.MESSAGE_SENT:
+                skipVarInts(3);
+                skipVarInts(getVarInt());
+                _messages++;
+                break;
+            case EventLogFormat.MESSAGE_REPLIED:
+                skipVarInts(3);
+                _messages++;
+                break;
+            case EventLogFormat.ACTION_RUN:
+                readAction();
+                break;
+            case EventLogFormat.CLIENT_ADDED: {
+                final int client = getVarInt();
+                _clientPlaces[client] = getVarInt();
+                _clientDestinations[client] = getVarInt();
+                break;
+            }
+            default:
+                throw new IOException("Invalid event log record: " + tag);
+        }
+    }
+
+    /**
+     * Applies the result of an action the way the agent did: a successful
+     * action adds its cost to the score of the agent and takes him to the
+     * next place, an embark takes the client from the town and a disembark
+     * takes the client out of the world.
+     */
+    private void readAction() throws IOException {
+        final int agent = getVarInt();
+        final ActionType action = EventLogFormat.ACTIONS[getVarInt()];
+        final boolean succeeded = getVarInt() != 0;
+        final int cost = EventLogFormat.decodeSigned(getVarInt());
+        final int place = getVarInt();
+        final int client = EventLogFormat.decodeSigned(getVarInt());
+        _actions++;
+        if (!succeeded) {
+            return;
+        }
+
+        _scores[agent] += cost;
+        _places[agent] = place;
+        if (client == NONE) {
+            return;
+        }
+        if (action == ActionType.EMBARK) {
+            _onboard[agent] = client;
+            _onboardDestinations[agent] = _clientDestinations[client];
+            _clientPlaces[client] = NONE;
+        } else {
+            _onboard[agent] = NONE;
+            _onboardDestinations[agent] = NONE;
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds a number of bytes, reading more of the log
+     * if needed.
+     *
+     * @param bytes The number of bytes
+     * @return true if the buffer holds them, false if the log ends before
+     */
+    private boolean ensure(final int bytes) throws IOException {
+        if (_buffer.remaining() >= bytes) {
+            return true;
+        }
+        _buffer.compact();
+        while (_buffer.position() < bytes) {
+            if (_channel.read(_buffer) < 0) {
+                break;
+            }
+        }
+        _buffer.flip();
+        return _buffer.remaining() >= bytes;
+    }
+
+    private byte nextByte() throws IOException {
+        if (!ensure(1)) {
+            throw new EOFException("The event log is truncated");
+        }
+        return _buffer.get();
+    }
+
+    private int getVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = nextByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private void skipVarInts(final int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            getVarInt();
+        }
+    }
+
+    private String getString() throws IOException {
+        final byte[] bytes = new byte[getVarInt()];
+        int read = 0;
+        while (read < bytes.length) {
+            if (!ensure(1)) {
+                throw new EOFException("The event log is truncated");
+            }
+            final int length = Math.min(bytes.length - read, _buffer.remaining());
+            _buffer.get(bytes, read, length);
+            read += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the map of the game
+     */
+    public WorldMap getMap() {
+        return _map;
+    }
+
+    /**
+     * @return the round played back last or -1 before the first round
+     */
+    public int getRound() {
+        return _round;
+    }
+
+    /**
+     * @return the number of agents of the game
+     */
+    public int getAgentCount() {
+        return _teams.length;
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the team of the agent
+     */
+    public String getTeam(final int agent) {
+        return _teams[agent];
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the formatted name of the agent (team + id)
+     */
+    public String getAgentName(final int agent) {
+        return _teams[agent] + Integer.toString(_ids[agent]);
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the id of the place the agent is at
+     */
+    public int getPlace(final int agent) {
+        return _places[agent];
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the mode of the agent
+     */
+    public Mode getMode(final int agent) {
+        return EventLogFormat.MODES[_modes[agent]];
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the score of the agent
+     */
+    public int getScore(final int agent) {
+        return _scores[agent];
+    }
+
+    /**
+     * @param team The team
+     * @return the sum of the scores of the agents of the team
+     */
+    public int getTeamScore(final String team) {
+        int score = 0;
+        for (int i = 0; i < _teams.length; i++) {
+            if (_teams[i].equals(team)) {
+                score += _scores[i];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the id of the client the agent carries or -1 if he carries none
+     */
+    public int getClientOnboard(final int agent) {
+        return _onboard[agent];
+    }
+
+    /**
+     * @param agent The index of the agent in the order the agents play
+     * @return the id of the destination of the client the agent carries or -1
+     * if he carries none
+     */
+    public int getClientOnboardDestination(final int agent) {
+        return _onboardDestinations[agent];
+    }
+
+    /**
+     * @param place The id of the place
+     * @return the ids of the clients waiting at the place
+     */
+    public List<Integer> getWaitingClients(final int place) {
+        final List<Integer> clients = new ArrayList<>();
+        for (int i = 0; i < _clientPlaces.length; i++) {
+            if (_clientPlaces[i] == place) {
+                clients.add(i);
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * @param client The id of the client
+     * @return the id of the destination of the client if he is waiting in a
+     * town, -1 if not
+     */
+    public int getClientDestination(final int client) {
+        return _clientPlaces[client] == NONE ? NONE : _clientDestinations[client];
+    }
+
+    /**
+     * @param place The id of a place
+     * @return the coordinates of the place
+     */
+    public Coordinates getCoordinates(final int place) {
+        return new Coordinates(place / _map.getWidth(), place % _map.getWidth());
+    }
+
+    /**
+     * @return the number of messages sent and replied so far
+     */
+    public long getMessageCount() {
+        return _messages;
+    }
+
+    /**
+     * @return the number of actions run so far, successful or not
+     */
+    public long getActionCount() {
+        return _actions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _channel.close();
+    }
+
+    /**
+     * @param args the path of the log and the round to print
+     * @throws IOException if the log could not be read
+     */
+    public static void main(String args[]) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: Replay log [round]");
+            return;
+        }
+        try (Replay replay = open(Paths.get(args[0]))) {
+            final long start = System.nanoTime();
+            if (args.length > 1) {
+                replay.seek(Integer.parseInt(args[1]));
+            } else {
+                while (replay.nextRound()) {
+                }
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("Round " + Integer.toString(replay.getRound())
+                    + " (" + Long.toString(replay.getActionCount()) + " actions, "
+                    + Long.toString(replay.getMessageCount()) + " messages, "
+                    + String.format("%.3f", seconds) + " s)");
+            for (int i = 0; i < replay.getAgentCount(); i++) {
+                final StringBuilder line = new StringBuilder()
+                        .append(replay.getAgentName(i))
+                        .append(" at ").append(formatCoords(replay.getCoordinates(replay.getPlace(i))))
+                        .append(' ').append(replay.getMode(i))
+                        .append(" score ").append(replay.getScore(i));
+                if (replay.getClientOnboard(i) != NONE) {
+                    line.append(" carrying client ").append(replay.getClientOnboard(i))
+                            .append(" to ").append(formatCoords(replay.getCoordinates(replay.getClientOnboardDestination(i))));
+                }
+                System.out.println(line);
+            }
+        }
+    }
+
+    /**
+     * @param coords The coordinates of a place
+     * @return the coordinates formatted like the ones of a place
+     */
+    private static String formatCoords(final Coordinates coords) {
+        return "[" + Integer.toString(coords.getX()) + "," + Integer.toString(coords.getY()) + "]";
+    }
+
+    private final SeekableByteChannel _channel;
+    private final ByteBuffer _buffer;
+    private final long _start;
+    private final WorldMap _map;
+
+    private final String[] _teams;
+    private final int[] _ids;
+    private final int[] _startPlaces;
+    private final int[] _startModes;
+    private final int[] _startScores;
+    private final int[] _places;
+    private final int[] _modes;
+    private final int[] _scores;
+    private final int[] _onboard;
+    private final int[] _onboardDestinations;
+
+    private final int[] _startClientPlaces;
+    private final int[] _startClientDestinations;
+    private final int[] _clientPlaces;
+    private final int[] _clientDestinations;
+
+    private int _round;
+    private long _messages;
+    private long _actions;
+
+    /**
+     * The value of a place, a client or a round that does not exist.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The number of bytes of the log read at once.
+     */
+    private static final int BUFFER_CAPACITY = 1 << 16;
+}
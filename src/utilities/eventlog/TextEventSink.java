@@ -0,0 +1,225 @@
+package utilities.eventlog;
+
+import agent.Action;
+import agent.Agent;
+import agent.AgentMessage;
+import agent.Intention;
+import agent.Mode;
+import world.Place;
+
+/**
+ * The TextEventSink narrates the events of a game in text, one or more lines
+ * per event, the way the agents have always narrated their turns.
+ *
+ * Only the events of the level of the sink or less detailed ones are
+ * narrated. The level is checked before anything else, so the text of the
+ * events that are filtered out is never built.
+ */
+public abstract class TextEventSink implements EventSink {
+
+    /**
+     * @param level The most detailed level of the events to narrate
+     */
+    protected TextEventSink(final EventLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Invalid value for level: " + level);
+        }
+        _level = level;
+    }
+
+    /**
+     * @return the most detailed level of the events narrated
+     */
+    public EventLevel getLevel() {
+        return _level;
+    }
+
+    /**
+     * Writes the text of an event.
+     *
+     * The text of an event is written at once, so the lines of events raised
+     * at the same time by different threads are never mixed up.
+     *
+     * @param text The text of the event, ending with a line separator
+     */
+    protected abstract void write(CharSequence text);
+
+    @Override
+    public void roundStarted(final int round) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(line(new StringBuilder()
+                .append("------------------------------Round ")
+                .append(round)
+                .append("------------------------------")));
+    }
+
+    @Override
+    public void turnEnded(final Agent agent) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void modeChanged(final Agent agent, final Mode previousMode, final Mode mode) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(line(new StringBuilder()
+                .append(agent.getName())
+                .append(" changed from ").append(previousMode)
+                .append(" to ").append(mode)));
+    }
+
+    @Override
+    public void messageSent(final AgentMessage message) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder()
+                .append(message.getSender().getName())
+                .append(" is sending a message to ").append(message.getRecipient().getName())
+                .append(" :");
+        write(line(appendContent(appendHeader(text, message), message)));
+    }
+
+    @Override
+    public void messageReplied(final AgentMessage message) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder()
+                .append(message.getSender().getName())
+                .append(" is replying to ").append(message.getRecipient().getName())
+                .append(" :");
+        write(line(appendHeader(text, message).append("EMPTY")));
+    }
+
+    @Override
+    public void messageRead(final AgentMessage message) {
+        if (!_level.includes(EventLevel.DEBUG)) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder()
+                .append(message.getRecipient().getName())
+                .append(" is reading a message from ").append(message.getSender().getName())
+                .append(" :");
+        write(line(appendContent(appendHeader(text, message), message)));
+    }
+
+    @Override
+    public void intentionRun(final Agent agent, final Intention intention) {
+        if (!_level.includes(EventLevel.DEBUG)) {
+            return;
+        }
+        final String step;
+        switch (intention.getType()) {
+            case CALCULATE_PATH:
+                step = " is calculating path to: ";
+                break;
+            case CALCULATE_NEXT_ACTION:
+                step = " is calculating next action to: ";
+                break;
+            case EXECUTE_NEXT_ACTION:
+                step = " is executing action to: ";
+                break;
+            default:
+                return;
+        }
+        write(line(new StringBuilder()
+                .append(agent.getName())
+                .append(step)
+                .append(intention.getShortTermGoal().getFormattedCoords())));
+    }
+
+    @Override
+    public void pathFound(final Agent agent, final Place destination) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(placeLine(new StringBuilder(), agent, " found path for ", destination));
+    }
+
+    @Override
+    public void pathNotFound(final Agent agent, final Place destination) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        final StringBuilder text = new StringBuilder();
+        placeLine(text, agent, " could not find path for ", destination);
+        write(placeLine(text, agent, " could not move to ", destination));
+    }
+
+    @Override
+    public void stayed(final Agent agent, final Place place) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(placeLine(new StringBuilder(), agent, " stayed at ", place));
+    }
+
+    @Override
+    public void opponentLost(final Agent agent) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(line(new StringBuilder().append(agent.getName()).append(" lost the opponent ")));
+    }
+
+    @Override
+    public void actionExecuting(final Agent agent, final Action action) {
+        if (!_level.includes(EventLevel.DEBUG)) {
+            return;
+        }
+        write(line(new StringBuilder()
+                .append(agent.getName())
+                .append(" is executing: ").append(action.getType())));
+    }
+
+    @Override
+    public void actionExecuted(final Agent agent, final Action action) {
+        if (!_level.includes(EventLevel.DEBUG)) {
+            return;
+        }
+        write(line(new StringBuilder()
+                .append(agent.getName())
+                .append(" successfuly executed: ").append(action.getType())));
+    }
+
+    @Override
+    public void moved(final Agent agent, final Place place) {
+        if (!_level.includes(EventLevel.INFO)) {
+            return;
+        }
+        write(placeLine(new StringBuilder(), agent, " moved to ", place));
+    }
+
+    private static StringBuilder appendHeader(final StringBuilder text, final AgentMessage message) {
+        return text.append("\n\tHeader: [").append(message.getType()).append("]")
+                .append("\n\tContent: ");
+    }
+
+    private static StringBuilder appendContent(final StringBuilder text, final AgentMessage message) {
+        for (Place place : message.getContent()) {
+            text.append(place.getFormattedCoords()).append(' ');
+        }
+        return text;
+    }
+
+    private static StringBuilder placeLine(final StringBuilder text, final Agent agent, final String event, final Place place) {
+        return line(text.append(agent.getName())
+                .append(event).append(place.getFormattedCoords())
+                .append(" (").append(place.getState()).append(")"));
+    }
+
+    private static StringBuilder line(final StringBuilder text) {
+        return text.append(LINE_SEPARATOR);
+    }
+
+    private final EventLevel _level;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+}
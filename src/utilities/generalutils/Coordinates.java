@@ -9,28 +9,31 @@ package utilities.generalutils;
 public class Coordinates {
 
     /**
+     * The coordinates can not be negative, the upper bounds depend on the size
+     * of the world.
+     *
      * @param x Coordinate x
      * @param y Coordinate y
      */
     public Coordinates(final int x, final int y) {
-        if (!(x >= 0 && x <= 4)) {
+        if (x < 0) {
             throw new IllegalArgumentException("Invalid value for x: " + x);
         }
         _x = x;
 
-        if (!(y >= 0 && y <= 4)) {
+        if (y < 0) {
             throw new IllegalArgumentException("Invalid value for y: " + y);
         }
         _y = y;
     }
 
     /**
-     * Sets the coordinate as long as it is not out of bounds.
+     * Sets the coordinate as long as it is not negative.
      *
      * @param x the X coordinate to set
      */
     public void setX(final int x) {
-        if (!(x >= 0 && x <= 4)) {
+        if (x < 0) {
             throw new IllegalArgumentException("Invalid value for x: " + x);
         }
         _x = x;
@@ -44,12 +47,12 @@ public class Coordinates {
     }
 
     /**
-     * Sets the coordinate as long as it is not out of bounds.
+     * Sets the coordinate as long as it is not negative.
      *
      * @param y the Y coordinate to set
      */
     public void setY(final int y) {
-        if (!(y >= 0 && y <= 4)) {
+        if (y < 0) {
             throw new IllegalArgumentException("Invalid value for y: " + y);
         }
         _y = y;
@@ -0,0 +1,119 @@
+package world;
+
+/**
+ * The ClientRegistry keeps track of the ids of the clients in a world, so
+ * that finding whether an id is in use or picking an id that is not takes
+ * constant time instead of a look at every place.
+ *
+ * The ids of the clients go from zero up to the maximum number of clients of
+ * the world. An id is in use while a client with that id is in the clients
+ * of a place, which the grid reports as clients come and go. The ids that are
+ * not in use are kept in a free list along with the position of every id in
+ * it, so an id is taken out of the list or put back in it by swapping it with
+ * the last one.
+ *
+ * Like the other counts of the grid, the registry is only updated when agents
+ * move or clients come and go, which happens one agent at a time.
+ */
+public class ClientRegistry {
+
+    /**
+     * All the ids start free.
+     *
+     * @param maxClients The maximum number of clients in the world at any
+     * given time
+     */
+    ClientRegistry(final int maxClients) {
+        _counts = new int[maxClients];
+        _freeIds = new int[maxClients];
+        _freePositions = new int[maxClients];
+        for (int id = 0; id < maxClients; id++) {
+            _freeIds[id] = id;
+            _freePositions[id] = id;
+        }
+        _freeIdCount = maxClients;
+    }
+
+    /**
+     * Called by the grid after a client was added to a place.
+     *
+     * @param id The id of the client
+     */
+    void clientAdded(final int id) {
+        checkId(id);
+        if (_counts[id]++ == 0) {
+            final int position = _freePositions[id];
+            final int last = _freeIds[--_freeIdCount];
+            _freeIds[position] = last;
+            _freePositions[last] = position;
+            _freePositions[id] = NOT_FREE;
+        }
+    }
+
+    /**
+     * Called by the grid after clients were removed from a place.
+     *
+     * @param id The id of the clients
+     * @param removed The number of clients with that id removed
+     */
+    void clientsRemoved(final int id, final int removed) {
+        checkId(id);
+        _counts[id] -= removed;
+        if (_counts[id] == 0 && removed > 0) {
+            _freeIds[_freeIdCount] = id;
+            _freePositions[id] = _freeIdCount++;
+        }
+    }
+
+    /**
+     * @param id The id of a client
+     * @throws IllegalArgumentException if the id is not one of the ids of the
+     * world
+     */
+    private void checkId(final int id) {
+        if (id < 0 || id >= _counts.length) {
+            throw new IllegalArgumentException("Invalid value for id: " + id);
+        }
+    }
+
+    /**
+     * @param id The id of a client
+     * @return true if a client with the id is in the world, false if not
+     */
+    public boolean isInUse(final int id) {
+        return id >= 0 && id < _counts.length && _counts[id] > 0;
+    }
+
+    /**
+     * @return the number of ids no client in the world has
+     */
+    public int getFreeIdCount() {
+        return _freeIdCount;
+    }
+
+    /**
+     * Finds an id no client in the world has. The order of the free ids
+     * depends on the order the ids were taken and freed in, so picking the
+     * index at random picks every free id with the same chance.
+     *
+     * @param index The number of the id among the free ids, from zero up to
+     * the number of free ids
+     * @return the id
+     */
+    public int getFreeId(final int index) {
+        if (index < 0 || index >= _freeIdCount) {
+            throw new IndexOutOfBoundsException("Invalid value for index: " + index);
+        }
+        return _freeIds[index];
+    }
+
+    private final int[] _counts;
+    private final int[] _freeIds;
+    private final int[] _freePositions;
+    private int _freeIdCount;
+
+    /**
+     * The position in the free list of an id that is in use.
+     */
+    private static final int NOT_FREE = -1;
+}
@@ -0,0 +1,196 @@
+package world;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The PathFinder performs breadth first searches over the traversable places
+ * of a world.
+ *
+ * It works on place ids only: the visited places are kept in a bit set, the
+ * queue and the parent of every place in int arrays. All of them are allocated
+ * once and reused by every search, so searching allocates nothing and never
+ * touches the places themselves. Since every place enters the queue at most
+ * once the queue never needs more room than the number of places.
+ *
+ * A PathFinder holds the state of one search at a time, so it must not be
+ * used by more than one thread at once. Planning agents take the path finder
+ * of their thread with #get(world.World), which lets any number of agents plan
+ * concurrently on the same world without sharing any search state.
+ *
+ * Between searches a path finder only keeps the traversable places of the
+ * grid it searches, which are part of the static world, and the path as ids.
+ * The places of the path are looked up in the places of the world given, so a
+ * path finder kept by a thread never keeps a game that has ended from being
+ * collected.
+ */
+public class PathFinder {
+
+    /**
+     * Creates a path finder that is not bound to a world yet.
+     */
+    public PathFinder() {
+        _visited = new long[0];
+        _queue = new int[0];
+        _parents = new int[0];
+        _pathLength = 0;
+    }
+
+    /**
+     * @param world The world to search in
+     */
+    public PathFinder(final World world) {
+        this();
+        bind(world);
+    }
+
+    /**
+     * Gets the path finder of the calling thread bound to the world given.
+     *
+     * Every thread keeps a single path finder which is moved from world to
+     * world as needed, so a thread playing many games one after the other
+     * reuses the same arrays.
+     *
+     * @param world The world to search in
+     * @return the path finder of the calling thread
+     */
+    public static PathFinder get(final World world) {
+        final PathFinder pathFinder = POOL.get();
+        if (pathFinder._neighbors != world.getGrid()._neighbors) {
+            pathFinder.bind(world);
+        }
+        return pathFinder;
+    }
+
+    /**
+     * Makes the path finder search in the world given, growing its arrays if
+     * the world has more places than the previous one.
+     *
+     * @param world The world to search in
+     */
+    public void bind(final World world) {
+        _neighborOffsets = world.getGrid()._neighborOffsets;
+        _neighbors = world.getGrid()._neighbors;
+
+        final int size = world.getGrid().getSize();
+        if (_queue.length < size) {
+            _visited = new long[(size + 63) >>> 6];
+            _queue = new int[size];
+            _parents = new int[size];
+        }
+        _pathLength = 0;
+    }
+
+    /**
+     * Finds the shortest path from start to end.
+     *
+     * The traversable places of every place are searched in order and the
+     * places the filter blocks are never entered, so the path is the same one
+     * that a search over lists of places would find.
+     *
+     * @param start The starting Place
+     * @param end The ending Place
+     * @param blocked The places that can not be entered, or null
+     * @return true if end was reached, false if not
+     */
+    public boolean search(final Place start, final Place end, final Predicate<Place> blocked) {
+        final WorldGrid grid = start.getGrid();
+        final int startId = start.getId();
+        final int endId = end.getId();
+
+        int head = 0;
+        int tail = 0;
+        _queue[tail++] = startId;
+        visit(startId);
+        _parents[startId] = -1;
+
+        boolean found = false;
+        while (head < tail) {
+            final int current = _queue[head++];
+            if (current == endId) {
+                found = true;
+                break;
+            }
+
+            final int last = _neighborOffsets.get(current + 1);
+            for (int i = _neighborOffsets.get(current); i < last; i++) {
+                final int neighbor = _neighbors.get(i);
+                if (!isVisited(neighbor)
+                        && (blocked == null || !blocked.test(grid.getPlace(neighbor)))) {
+                    visit(neighbor);
+                    _parents[neighbor] = current;
+                    _queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        for (int i = 0; i < tail; i++) {
+            _visited[_queue[i] >>> 6] = 0;
+        }
+
+        _pathLength = 0;
+        if (found) {
+            for (int id = endId; id != -1; id = _parents[id]) {
+                _pathLength++;
+            }
+            int index = _pathLength;
+            for (int id = endId; id != -1; id = _parents[id]) {
+                _queue[--index] = id;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the number of places in the path of the last successful search
+     */
+    public int getPathLength() {
+        return _pathLength;
+    }
+
+    /**
+     * @param index The index of the place in the path, starting from zero
+     * @return the id of the place of the path of the last successful search
+     */
+    public int getPathId(final int index) {
+        if (index < 0 || index >= _pathLength) {
+            throw new IndexOutOfBoundsException("Invalid value for index: " + index);
+        }
+        return _queue[index];
+    }
+
+    /**
+     * Copies the path of the last successful search to a list.
+     *
+     * @param places The places of the world searched, in the order of their
+     * ids
+     * @param path The list to add the places of the path to
+     */
+    public void copyPath(final List<Place> places, final List<Place> path) {
+        for (int i = 0; i < _pathLength; i++) {
+            path.add(places.get(_queue[i]));
+        }
+    }
+
+    private boolean isVisited(final int id) {
+        return (_visited[id >>> 6] & (1L << id)) != 0;
+    }
+
+    private void visit(final int id) {
+        _visited[id >>> 6] |= 1L << id;
+    }
+
+    private IntBuffer _neighborOffsets;
+    private IntBuffer _neighbors;
+
+    private long[] _visited;
+    private int[] _queue;
+    private int[] _parents;
+    private int _pathLength;
+
+    /**
+     * The path finders of the threads.
+     */
+    private static final ThreadLocal<PathFinder> POOL = ThreadLocal.withInitial(PathFinder::new);
+}
@@ -0,0 +1,323 @@
+package world;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The PathTable holds the shortest paths between the places of a world.
+ *
+ * The traversable places never change during a game so the paths are computed
+ * once and kept in flat int arrays indexed by place id. Looking up
+ * the next place towards a destination or the distance to it is then a single
+ * array access.
+ *
+ * On small worlds the table is complete: for every source it holds the first
+ * step of the path a breadth first search from that source would find, so it
+ * agrees exactly with searching. The complete table is part of the snapshot of
+ * the world and shared by all the worlds made from it. On larger worlds a
+ * complete table does not fit in memory, so a row is computed the first time a
+ * destination is asked for (searching backwards from the destination) and kept
+ * while there is room for it. Destinations without a row are not covered and
+ * the caller has to search on his own.
+ *
+ * The rows only depend on the static world, so they are kept by the snapshot
+ * and every world made from it reuses the rows the others computed, up to
+ * MAX_CACHED_BYTES for the snapshot. Which destinations a world covers is
+ * still decided by the world alone, the first MAX_CACHED_BYTES worth of
+ * destinations it asks for, so a game finds the same paths whatever the games
+ * before it asked for. A world only computes and keeps a row of its own once
+ * the rows of the snapshot are full.
+ */
+public class PathTable {
+
+    /**
+     * Builds the table of the world given. On small worlds the complete table
+     * is the one of the snapshot of the world, which is computed only once for
+     * all the worlds made from it.
+     *
+     * @param world The world
+     */
+    public PathTable(final World world) {
+        _places = world.getPlaces();
+        _size = _places.size();
+
+        final WorldSnapshot snapshot = world.getGrid().getSnapshot();
+        _nextHops = snapshot.getNextHops();
+        _distances = snapshot.getDistances();
+        _complete = _nextHops != null;
+        if (_complete) {
+            _sharedRows = null;
+            _rows = null;
+            _coveredBytes = null;
+        } else {
+            _sharedRows = snapshot.getPathRows();
+            _rows = new AtomicReferenceArray<>(_size);
+            _coveredBytes = new AtomicLong();
+        }
+    }
+
+    /**
+     * @param size The number of places of a world
+     * @return true if the table of a world with that many places is complete,
+     * false if its rows are computed as they are asked for
+     */
+    static boolean isComplete(final int size) {
+        return (long) size * size <= MAX_COMPLETE_ENTRIES;
+    }
+
+    /**
+     * Runs a breadth first search from every place and keeps, for every place
+     * reached, the distance to it and the first step of the path towards it.
+     *
+     * @param size The number of places
+     * @param neighborOffsets The offsets of the traversable places of every
+     * place in the neighbours
+     * @param neighbors The ids of the traversable places of every place
+     * @param nextHops Filled with the first step from every place to every
+     * place, a row per source
+     * @param distances Filled with the distance from every place to every
+     * place, a row per source
+     */
+    static void computeCompleteTable(final int size, final IntBuffer neighborOffsets, final IntBuffer neighbors,
+            final int[] nextHops, final int[] distances) {
+        final int[] queue = new int[size];
+        final int[] parents = new int[size];
+        for (int source = 0; source < size; source++) {
+            final int row = source * size;
+            final int reached = search(size, neighborOffsets, neighbors, source, queue, parents, distances, row);
+            for (int id = 0; id < size; id++) {
+                nextHops[row + id] = UNREACHABLE;
+            }
+            nextHops[row + source] = source;
+            for (int i = 1; i < reached; i++) {
+                final int id = queue[i];
+                nextHops[row + id] = parents[id] == source ? id : nextHops[row + parents[id]];
+            }
+        }
+    }
+
+    /**
+     * Breadth first search over the traversable places.
+     *
+     * @param size The number of places
+     * @param neighborOffsets The offsets of the traversable places of every
+     * place in the neighbours
+     * @param neighbors The ids of the traversable places of every place
+     * @param source The place to start from
+     * @param queue Filled with the places reached in the order they were
+     * reached
+     * @param parents Filled with the place each place was reached from, or
+     * UNREACHABLE
+     * @param distances Filled with the distance of each place from the source
+     * starting at offset, or UNREACHABLE
+     * @param offset The offset of the distances of this search
+     * @return the number of places reached
+     */
+    private static int search(final int size, final IntBuffer neighborOffsets, final IntBuffer neighbors,
+            final int source, final int[] queue, final int[] parents, final int[] distances, final int offset) {
+        for (int id = 0; id < size; id++) {
+            parents[id] = UNREACHABLE;
+            distances[offset + id] = UNREACHABLE;
+        }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[offset + source] = 0;
+        while (head < tail) {
+            final int current = queue[head++];
+            final int last = neighborOffsets.get(current + 1);
+            for (int i = neighborOffsets.get(current); i < last; i++) {
+                final int neighbor = neighbors.get(i);
+                if (distances[offset + neighbor] == UNREACHABLE) {
+                    distances[offset + neighbor] = distances[offset + current] + 1;
+                    parents[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * The rows of the destinations of a world whose table is not complete,
+     * which the snapshot of the world keeps for all the worlds made from it.
+     *
+     * A row holds the next place towards the destination from every place
+     * followed by the distance of every place from the destination. Rows are
+     * computed as they are asked for and kept until they take
+     * MAX_CACHED_BYTES.
+     */
+    static final class Rows {
+
+        /**
+         * @param size The number of places
+         * @param neighborOffsets The offsets of the traversable places of
+         * every place in the neighbours
+         * @param neighbors The ids of the traversable places of every place
+         */
+        Rows(final int size, final IntBuffer neighborOffsets, final IntBuffer neighbors) {
+            _size = size;
+            _neighborOffsets = neighborOffsets;
+            _neighbors = neighbors;
+            _rows = new AtomicReferenceArray<>(size);
+            _cachedBytes = new AtomicLong();
+        }
+
+        /**
+         * Finds the row of a destination, computing it if there is still room.
+         * Two threads may end up computing the same row, in which case both
+         * get the same result.
+         *
+         * @param destination The id of the destination
+         * @return the row of the destination or null if there is no room for
+         * it
+         */
+        int[] get(final int destination) {
+            int[] row = _rows.get(destination);
+            if (row != null) {
+                return row;
+            }
+
+            final long bytes = 8L * _size;
+            if (_cachedBytes.addAndGet(bytes) > MAX_CACHED_BYTES) {
+                _cachedBytes.addAndGet(-bytes);
+                return null;
+            }
+
+            row = compute(destination);
+            if (!_rows.compareAndSet(destination, null, row)) {
+                _cachedBytes.addAndGet(-bytes);
+                row = _rows.get(destination);
+            }
+            return row;
+        }
+
+        /**
+         * @param destination The id of the destination
+         * @return a new row of the destination
+         */
+        int[] compute(final int destination) {
+            final int[] row = new int[2 * _size];
+            final int[] queue = new int[_size];
+            search(_size, _neighborOffsets, _neighbors, destination, queue, row, row, _size);
+            return row;
+        }
+
+        private final int _size;
+        private final IntBuffer _neighborOffsets;
+        private final IntBuffer _neighbors;
+        private final AtomicReferenceArray<int[]> _rows;
+        private final AtomicLong _cachedBytes;
+    }
+
+    /**
+     * Finds the row of a destination, covering the destination if the world
+     * still has room for it. The row is the one of the snapshot, unless the
+     * rows of the snapshot are full.
+     *
+     * @param destination The id of the destination
+     * @return the row of the destination or null if it is not covered
+     */
+    private int[] getRow(final int destination) {
+        int[] row = _rows.get(destination);
+        if (row != null) {
+            return row;
+        }
+
+        final long bytes = 8L * _size;
+        if (_coveredBytes.addAndGet(bytes) > MAX_CACHED_BYTES) {
+            _coveredBytes.addAndGet(-bytes);
+            return null;
+        }
+
+        row = _sharedRows.get(destination);
+        if (row == null) {
+            row = _sharedRows.compute(destination);
+        }
+        if (!_rows.compareAndSet(destination, null, row)) {
+            _coveredBytes.addAndGet(-bytes);
+            row = _rows.get(destination);
+        }
+        return row;
+    }
+
+    /**
+     * @param destination The destination
+     * @return true if the paths towards the destination are in the table,
+     * false if the caller has to search on his own
+     */
+    public boolean covers(final Place destination) {
+        return _complete || getRow(destination.getId()) != null;
+    }
+
+    /**
+     * @param from The starting place
+     * @param to The destination
+     * @return the number of moves from one place to the other, UNREACHABLE if
+     * there is no path or NOT_COVERED if the destination is not in the table
+     */
+    public int getDistance(final Place from, final Place to) {
+        if (_complete) {
+            return _distances.get(from.getId() * _size + to.getId());
+        }
+        final int[] row = getRow(to.getId());
+        if (row == null) {
+            return NOT_COVERED;
+        }
+        return row[_size + from.getId()];
+    }
+
+    /**
+     * @param from The starting place
+     * @param to The destination
+     * @return the place to move to from the starting place in order to get to
+     * the destination, the destination itself if the places are the same or
+     * null if there is no path or the destination is not in the table
+     */
+    public Place getNextHop(final Place from, final Place to) {
+        final int nextHop;
+        if (from.getId() == to.getId()) {
+            nextHop = to.getId();
+        } else if (_complete) {
+            nextHop = _nextHops.get(from.getId() * _size + to.getId());
+        } else {
+            final int[] row = getRow(to.getId());
+            if (row == null) {
+                return null;
+            }
+            nextHop = row[from.getId()];
+        }
+        return nextHop == UNREACHABLE ? null : _places.get(nextHop);
+    }
+
+    private final List<Place> _places;
+    private final int _size;
+
+    private final boolean _complete;
+    private final IntBuffer _nextHops;
+    private final IntBuffer _distances;
+    private final Rows _sharedRows;
+    private final AtomicReferenceArray<int[]> _rows;
+    private final AtomicLong _coveredBytes;
+
+    /**
+     * The value of a place that can not be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The distance to a destination that is not in the table.
+     */
+    public static final int NOT_COVERED = -2;
+
+    /**
+     * Tuning parameters for the memory of the table: the number of entries
+     * under which the table is complete and the number of bytes of the rows
+     * kept for a snapshot of a larger world, which is also the number of bytes
+     * of the rows a world covers.
+     */
+    private static final long MAX_COMPLETE_ENTRIES = 1 << 20;
+    private static final long MAX_CACHED_BYTES = 1L << 26;
+}
@@ -3,6 +3,7 @@ package world;
 import utilities.generalutils.Coordinates;
 import agent.Agent;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
@@ -10,6 +11,12 @@ import java.util.Queue;
 /**
  * Place is the class which holds the blocks on our world.
  *
+ * A Place is a view of a single place of the grid of its world: its
+ * coordinates, its state, its walls and its counts are all kept by the grid.
+ * Only the clients and the agents on the place (and the places around it once
+ * they are asked for) are kept by the Place itself, and only from the moment
+ * there are any.
+ *
  * @author Kanakari Maria
  * @author Kanellis Dimitris
  */
@@ -17,28 +24,60 @@ public class Place {
 
     /**
      * A Place consists of the coordinates on the world array, it's state
-     * (R,G,B,Y if it's a town, - if it isn't), the list of Clients in that
+     * (R,G,B,Y etc. if it's a town, - if it isn't), the list of Clients in that
      * Place, the list of agents in that Place, the list of traversable places
-     * from this Place, the list of non-traversable places and the parent of the
-     * Place (used in BFS).
+     * from this Place and the list of non-traversable places.
+     *
+     * The id of a Place is its index in the places list of the world. Places
+     * are only made by the grid of their world, one for every id.
      *
-     * @param coords x,y Coordinates of the Place
+     * @param grid The grid of the world of the Place
+     * @param id The id of the Place
      */
-    public Place(final Coordinates coords) {
-        _coords = coords;
-        _state = '-';
-        _clients = new ArrayList<>();
-        _agents = new ArrayList<>();
-        _traversablePlaces = new ArrayList<>();
-        _nonTraversablePlaces = new ArrayList<>();
+    Place(final WorldGrid grid, final int id) {
+        _grid = grid;
+        _id = id;
     }
 
     /**
+     *
+     * @return the id of this place
+     */
+    public int getId() {
+        return _id;
+    }
+
+    /**
+     * @return the grid of the world of this place
+     */
+    WorldGrid getGrid() {
+        return _grid;
+    }
+
+    /**
+     *
+     * @return the row of this place
+     */
+    public int getX() {
+        return _grid.getX(_id);
+    }
+
+    /**
+     *
+     * @return the column of this place
+     */
+    public int getY() {
+        return _grid.getY(_id);
+    }
+
+    /**
+     * The coordinates are not kept, so every call makes new ones. Use getX()
+     * and getY() where only the numbers are needed.
      *
      * @return x,y coordinates of this place
      */
     public Coordinates getCoords() {
-        return _coords;
+        return new Coordinates(getX(), getY());
     }
 
     /**
@@ -46,31 +85,46 @@ public class Place {
      * @return x,y formatted for printing coordinates of this place
      */
     public String getFormattedCoords() {
-        return "[" + Integer.toString(getCoords().getX())
-                + "," + Integer.toString(getCoords().getY()) + "]";
+        return "[" + Integer.toString(getX())
+                + "," + Integer.toString(getY()) + "]";
     }
 
     /**
      *
-     * @param state the state to set (R,G,B,Y,-)
+     * @return the state of this place
      */
-    public void setState(final char state) {
-        if (state != '-'
-                && state != 'R'
-                && state != 'G'
-                && state != 'B'
-                && state != 'Y') {
-            throw new IllegalArgumentException("Invalid value for state: " + state);
-        }
-        _state = state;
+    public char getState() {
+        return _grid.getState(_id);
     }
 
     /**
+     * The walls never change during a game, so the places are found the first
+     * time they are asked for and shared by every agent that stands on the
+     * place. Two threads may both find them at once, in which case both get
+     * the same places.
      *
-     * @return the state of this place
+     * @return the places in line-of-sight of this place (this place included)
+     * in the same order as the places of the world: the place itself and all
+     * the places that are one block away unless there is a wall in between
      */
-    public char getState() {
-        return _state;
+    public List<Place> getVisiblePlaces() {
+        List<Place> visiblePlaces = _visiblePlaces;
+        if (visiblePlaces == null) {
+            final List<Place> places = new ArrayList<>(9);
+            final int x = getX();
+            final int y = getY();
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    final int other = _grid.getId(x + i, y + j);
+                    if (other != WorldGrid.NONE && !_grid.hasWall(_id, i, j)) {
+                        places.add(_grid.getPlace(other));
+                    }
+                }
+            }
+            visiblePlaces = Collections.unmodifiableList(places);
+            _visiblePlaces = visiblePlaces;
+        }
+        return visiblePlaces;
     }
 
     /**
@@ -78,7 +132,11 @@ public class Place {
      * @param client the client to add
      */
     public void addClient(Client client) {
+        if (_clients == null) {
+            _clients = new ArrayList<>(2);
+        }
         _clients.add(client);
+        _grid.clientAdded(_id, client.getId());
     }
 
     /**
@@ -87,12 +145,20 @@ public class Place {
      * @param client the client to remove
      */
     public void removeClient(final Client client) {
+        if (_clients == null) {
+            return;
+        }
+        int removed = 0;
         Iterator<Client> iter = _clients.iterator();
         while (iter.hasNext()) {
             if (iter.next().equals(client)) {
                 iter.remove();
+                removed++;
             }
         }
+        if (removed > 0) {
+            _grid.clientsRemoved(_id, client.getId(), removed);
+        }
     }
 
     /**
@@ -100,7 +166,7 @@ public class Place {
      * @return client list of this place
      */
     public List<Client> getClientList() {
-        return _clients;
+        return _clients == null ? Collections.<Client>emptyList() : _clients;
     }
 
     /**
@@ -108,9 +174,12 @@ public class Place {
      * @return the first client that is not taken or null
      */
     public Client getFirstAvailableClient() {
-        for (Client client : _clients) {
-            if (!client.isTaken()) {
-                return client;
+        if (_clients == null) {
+            return null;
+        }
+        for (int i = 0; i < _clients.size(); i++) {
+            if (!_clients.get(i).isTaken()) {
+                return _clients.get(i);
             }
         }
         return null;
@@ -121,7 +190,11 @@ public class Place {
      * @param agent the agent to add
      */
     public void addAgent(Agent agent) {
+        if (_agents == null) {
+            _agents = new ArrayList<>(2);
+        }
         _agents.add(agent);
+        _grid.agentAdded(_id);
     }
 
     /**
@@ -130,12 +203,20 @@ public class Place {
      * @param agent the agent to remove
      */
     public void removeAgent(Agent agent) {
+        if (_agents == null) {
+            return;
+        }
+        int removed = 0;
         Iterator<Agent> iter = _agents.iterator();
         while (iter.hasNext()) {
             if (iter.next().equals(agent)) {
                 iter.remove();
+                removed++;
             }
         }
+        if (removed > 0) {
+            _grid.agentsRemoved(_id, removed);
+        }
     }
 
     /**
@@ -143,7 +224,7 @@ public class Place {
      * @return agent list of this place
      */
     public List<Agent> getAgentList() {
-        return _agents;
+        return _agents == null ? Collections.<Agent>emptyList() : _agents;
     }
 
     /**
@@ -151,7 +232,7 @@ public class Place {
      * @return true if there is any agent in this place, false if not
      */
     public boolean hasAgent() {
-        return !_agents.isEmpty();
+        return _grid.getAgentCount(_id) > 0;
     }
 
     /**
@@ -161,8 +242,11 @@ public class Place {
      * @return true if it has an opposing agent, false if not
      */
     public boolean hasOpposingAgent(Agent thisAgent) {
-        for (Agent agent : _agents) {
-            if (!thisAgent.getTeam().equals(agent.getTeam())) {
+        if (_agents == null) {
+            return false;
+        }
+        for (int i = 0; i < _agents.size(); i++) {
+            if (!thisAgent.getTeam().equals(_agents.get(i).getTeam())) {
                 return true;
             }
         }
@@ -177,6 +261,9 @@ public class Place {
      * @return true if it has a teamate agent, false if not
      */
     public boolean hasTeamateAgent(Agent thisAgent) {
+        if (_agents == null) {
+            return false;
+        }
         for (Agent agent : _agents) {
             if (thisAgent.getTeam().equals(agent.getTeam())
                     && !thisAgent.equals(agent)) {
@@ -187,64 +274,79 @@ public class Place {
     }
 
     /**
-     * Adds a non-traversable Place to the list.
-     *
-     * @param place The Place to be added
-     */
-    public void addNonTraversablePlace(final Place place) {
-        _nonTraversablePlaces.add(place);
-    }
-
-    /**
+     * The walls never change during a game, so the places are found every
+     * time they are asked for.
      *
-     * @return non traversable places list of this place
+     * @return the places next to this place (diagonally included) with a
+     * wall in between
      */
     public List<Place> getNonTraversablePlaces() {
-        return _nonTraversablePlaces;
-    }
-
-    /**
-     * Adds a traversable Place to the list.
-     *
-     * @param place The Place to be added
-     */
-    public void addTraversablePlace(final Place place) {
-        _traversablePlaces.add(place);
+        final List<Place> places = new ArrayList<>();
+        for (int i = -1; i <= 1; i++) {
+            for (int j = -1; j <= 1; j++) {
+                final int other = _grid.getId(getX() + i, getY() + j);
+                if (other != WorldGrid.NONE && _grid.hasWall(_id, i, j)) {
+                    places.add(_grid.getPlace(other));
+                }
+            }
+        }
+        return places;
     }
 
     /**
+     * The places are found the first time they are asked for, the same way as
+     * the visible places.
      *
-     * @return traversable places list of this place
+     * @return traversable places list of this place: the places right above,
+     * left, right and below it (in that order) unless there is a wall in
+     * between
      */
     public List<Place> getTraversablePlaces() {
-        return _traversablePlaces;
-    }
-
-    /**
-     * Sets the parent (the Place where the search came from in BFS).
-     *
-     * @param parent the place to set as parent
-     */
-    public void setParent(final Place parent) {
-        _parent = parent;
+        List<Place> traversablePlaces = _traversablePlaces;
+        if (traversablePlaces == null) {
+            final int first = _grid._neighborOffsets.get(_id);
+            final int last = _grid._neighborOffsets.get(_id + 1);
+            final List<Place> places = new ArrayList<>(last - first);
+            for (int i = first; i < last; i++) {
+                places.add(_grid.getPlace(_grid._neighbors.get(i)));
+            }
+            traversablePlaces = Collections.unmodifiableList(places);
+            _traversablePlaces = traversablePlaces;
+        }
+        return traversablePlaces;
     }
 
     /**
+     * Finds the place a single move up, down, left or right leads to without
+     * going through the list of the traversable places.
      *
-     * @return parent of this place (for BFS)
+     * @param rowOffset The rows to move, -1, 0 or 1
+     * @param columnOffset The columns to move, -1, 0 or 1
+     * @return the next place or null if it is out of bounds of the world or
+     * there is a wall in between
      */
-    public Place getParent() {
-        return _parent;
+    public Place getTraversablePlace(final int rowOffset, final int columnOffset) {
+        final int id = _grid.getTraversableId(_id, rowOffset, columnOffset);
+        return id == WorldGrid.NONE ? null : _grid.getPlace(id);
     }
 
     /**
      * Checks if the Place is in the given list of places
      *
+     * The list is looked up by index without a stream, since path searches
+     * call this for every place they reach, so it should be a list with random
+     * access like the visible and the traversable places.
+     *
      * @param places The given list of places
      * @return True if it is, false if not
      */
     public boolean isIn(final List<Place> places) {
-        return places.stream().anyMatch((pl) -> (pl.equals(this)));
+        for (int i = 0; i < places.size(); i++) {
+            if (places.get(i).equals(this)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -288,7 +390,7 @@ public class Place {
         }
 
         Place other = (Place) o;
-        if (!this.getCoords().equals(other.getCoords())) {
+        if (this.getX() != other.getX() || this.getY() != other.getY()) {
             return false;
         }
         return true;
@@ -301,14 +403,13 @@ public class Place {
      */
     @Override
     public int hashCode() {
-        return (41 * (41 + getCoords().getX()) - getCoords().getY());
+        return (41 * (41 + getX()) - getY());
     }
 
-    private final Coordinates _coords;
-    private char _state;
-    private final List<Client> _clients;
-    private final List<Agent> _agents;
-    private final List<Place> _traversablePlaces;
-    private final List<Place> _nonTraversablePlaces;
-    private Place _parent;
+    private final WorldGrid _grid;
+    private final int _id;
+    private List<Client> _clients;
+    private List<Agent> _agents;
+    private List<Place> _traversablePlaces;
+    private List<Place> _visiblePlaces;
 }
@@ -0,0 +1,229 @@
+package world;
+
+/**
+ * The SpatialIndex counts the agents and the clients of a world by area.
+ *
+ * The world is divided in square cells of CELL_SIZE x CELL_SIZE places and
+ * every cell keeps the number of agents, the number of clients and the number
+ * of places with at least one agent in it. The grid updates the counts as
+ * agents and clients come and go, so the totals are always known and the
+ * agents or clients around a place are counted by looking at the cells that
+ * cover the area instead of every place of the world.
+ *
+ * The counts are only updated when agents move or clients come and go, which
+ * happens one agent at a time, so reading them while agents decide in
+ * parallel is safe.
+ */
+public class SpatialIndex {
+
+    /**
+     * @param grid The grid of the world to index. Its places must not have any
+     * agents or clients yet.
+     */
+    SpatialIndex(final WorldGrid grid) {
+        _grid = grid;
+        _cellRows = (grid.getHeight() + CELL_SIZE - 1) / CELL_SIZE;
+        _cellColumns = (grid.getWidth() + CELL_SIZE - 1) / CELL_SIZE;
+        _agents = new int[_cellRows * _cellColumns];
+        _clients = new int[_cellRows * _cellColumns];
+        _occupiedPlaces = new int[_cellRows * _cellColumns];
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the index of the cell the place is in
+     */
+    private int getCell(final int id) {
+        return (_grid.getX(id) / CELL_SIZE) * _cellColumns + _grid.getY(id) / CELL_SIZE;
+    }
+
+    /**
+     * Called by the grid after an agent was added to a place.
+     *
+     * @param id The id of the place
+     */
+    void agentAdded(final int id) {
+        final int cell = getCell(id);
+        _agents[cell]++;
+        _agentCount++;
+        if (_grid.getAgentCount(id) == 1) {
+            _occupiedPlaces[cell]++;
+            _occupiedPlaceCount++;
+        }
+    }
+
+    /**
+     * Called by the grid after agents were removed from a place.
+     *
+     * @param id The id of the place
+     * @param removed The number of agents removed
+     */
+    void agentsRemoved(final int id, final int removed) {
+        if (removed == 0) {
+            return;
+        }
+        final int cell = getCell(id);
+        _agents[cell] -= removed;
+        _agentCount -= removed;
+        if (_grid.getAgentCount(id) == 0) {
+            _occupiedPlaces[cell]--;
+            _occupiedPlaceCount--;
+        }
+    }
+
+    /**
+     * Called by the grid after a client was added to a place.
+     *
+     * @param id The id of the place
+     */
+    void clientAdded(final int id) {
+        _clients[getCell(id)]++;
+        _clientCount++;
+    }
+
+    /**
+     * Called by the grid after clients were removed from a place.
+     *
+     * @param id The id of the place
+     * @param removed The number of clients removed
+     */
+    void clientsRemoved(final int id, final int removed) {
+        _clients[getCell(id)] -= removed;
+        _clientCount -= removed;
+    }
+
+    /**
+     * @return the number of agents in the world
+     */
+    public int getAgentCount() {
+        return _agentCount;
+    }
+
+    /**
+     * @return the number of clients in the world, the ones onboard included
+     */
+    public int getClientCount() {
+        return _clientCount;
+    }
+
+    /**
+     * @return the number of places with at least one agent
+     */
+    public int getOccupiedPlaceCount() {
+        return _occupiedPlaceCount;
+    }
+
+    /**
+     * Counts the agents in the square area around a place. Walls are not taken
+     * into account.
+     *
+     * @param center The place in the middle of the area
+     * @param radius The number of places from the center to the edge of the
+     * area
+     * @return the number of agents in the area
+     */
+    public int countAgents(final Place center, final int radius) {
+        return count(center, radius, _agents, true);
+    }
+
+    /**
+     * Counts the clients in the square area around a place. Walls are not
+     * taken into account.
+     *
+     * @param center The place in the middle of the area
+     * @param radius The number of places from the center to the edge of the
+     * area
+     * @return the number of clients in the area, the ones onboard included
+     */
+    public int countClients(final Place center, final int radius) {
+        return count(center, radius, _clients, false);
+    }
+
+    /**
+     * Adds up the counts of the cells that are inside the area and counts the
+     * places one by one only where a cell is partly inside.
+     */
+    private int count(final Place center, final int radius, final int[] cellCounts, final boolean agents) {
+        final int minX = Math.max(0, center.getX() - radius);
+        final int maxX = Math.min(_grid.getHeight() - 1, center.getX() + radius);
+        final int minY = Math.max(0, center.getY() - radius);
+        final int maxY = Math.min(_grid.getWidth() - 1, center.getY() + radius);
+
+        int count = 0;
+        for (int cellRow = minX / CELL_SIZE; cellRow <= maxX / CELL_SIZE; cellRow++) {
+            for (int cellColumn = minY / CELL_SIZE; cellColumn <= maxY / CELL_SIZE; cellColumn++) {
+                final int cellMinX = cellRow * CELL_SIZE;
+                final int cellMaxX = Math.min(_grid.getHeight(), cellMinX + CELL_SIZE) - 1;
+                final int cellMinY = cellColumn * CELL_SIZE;
+                final int cellMaxY = Math.min(_grid.getWidth(), cellMinY + CELL_SIZE) - 1;
+
+                if (minX <= cellMinX && cellMaxX <= maxX && minY <= cellMinY && cellMaxY <= maxY) {
+                    count += cellCounts[cellRow * _cellColumns + cellColumn];
+                    continue;
+                }
+                for (int x = Math.max(minX, cellMinX); x <= Math.min(maxX, cellMaxX); x++) {
+                    for (int y = Math.max(minY, cellMinY); y <= Math.min(maxY, cellMaxY); y++) {
+                        final int id = _grid.getId(x, y);
+                        count += agents ? _grid.getAgentCount(id) : _grid.getClientCount(id);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds a place without agents. The places without agents are numbered
+     * cell by cell, so the cells before the place are skipped by their counts.
+     *
+     * @param index The number of the place among the places without agents,
+     * from zero up to the number of places without agents
+     * @return the place
+     */
+    public Place getFreePlace(final int index) {
+        if (index < 0 || index >= _grid.getSize() - _occupiedPlaceCount) {
+            throw new IndexOutOfBoundsException("Invalid value for index: " + index);
+        }
+
+        int remaining = index;
+        for (int cellRow = 0; cellRow < _cellRows; cellRow++) {
+            for (int cellColumn = 0; cellColumn < _cellColumns; cellColumn++) {
+                final int cellMinX = cellRow * CELL_SIZE;
+                final int cellMaxX = Math.min(_grid.getHeight(), cellMinX + CELL_SIZE) - 1;
+                final int cellMinY = cellColumn * CELL_SIZE;
+                final int cellMaxY = Math.min(_grid.getWidth(), cellMinY + CELL_SIZE) - 1;
+                final int freePlaces = (cellMaxX - cellMinX + 1) * (cellMaxY - cellMinY + 1)
+                        - _occupiedPlaces[cellRow * _cellColumns + cellColumn];
+
+                if (remaining >= freePlaces) {
+                    remaining -= freePlaces;
+                    continue;
+                }
+                for (int x = cellMinX; x <= cellMaxX; x++) {
+                    for (int y = cellMinY; y <= cellMaxY; y++) {
+                        final int id = _grid.getId(x, y);
+                        if (_grid.getAgentCount(id) == 0 && remaining-- == 0) {
+                            return _grid.getPlace(id);
+                        }
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("The counts of the index do not match the world");
+    }
+
+    private final WorldGrid _grid;
+    private final int _cellRows;
+    private final int _cellColumns;
+    private final int[] _agents;
+    private final int[] _clients;
+    private final int[] _occupiedPlaces;
+    private int _agentCount;
+    private int _clientCount;
+    private int _occupiedPlaceCount;
+
+    /**
+     * The number of rows and columns of places in a cell.
+     */
+    public static final int CELL_SIZE = 8;
+}
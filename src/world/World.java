@@ -1,228 +1,263 @@
 package world;
 
-import utilities.generalutils.Coordinates;
+import utilities.generalutils.Helper;
 import agent.Agent;
+import utilities.eventlog.EventSink;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * The World object is the main class that represents the world of the problem.
  *
- * It holds all the places and several functions for producing the world.
+ * It holds all the places and several functions for producing the world. The
+ * state of the places is kept by the grid of the world in flat arrays and the
+ * places are views of it, which are only made once they are asked for.
  */
 public class World {
 
     /**
-     * The World object holds the world array which represents the 2D position
-     * of the places, the list of towns in the world and the list of places.
+     * The World object holds the grid which represents the 2D position of the
+     * places, the list of towns in the world and the list of places.
      *
-     * @param width World's width
-     * @param height World's height
-     * @param rand The random object
+     * The size, the towns and the walls of the world are taken from the map.
+     * Place [x,y] is the place at row x and column y of the world array.
+     *
+     * @param map The description of the world
+     * @param rand The random object of the world, which nothing else draws
+     * from
      */
-    public World(final int width, final int height, final Random rand) {
-        if (width != 5) {
-            throw new IllegalArgumentException("Invalid value for width: " + width);
-        }
-        _width = width;
+    public World(final WorldMap map, final SplittableRandom rand) {
+        this(WorldSnapshot.of(map), rand);
+    }
 
-        if (height != 5) {
-            throw new IllegalArgumentException("Invalid value for width: " + height);
+    /**
+     * Works exactly like #World(world.WorldMap, java.util.SplittableRandom)
+     * except the static part of the world is taken from a snapshot, which may
+     * be shared by many worlds at once (for example the games of a batch) or
+     * mapped from a snapshot file.
+     *
+     * @param snapshot The static part of the world
+     * @param rand The random object of the world, which nothing else draws
+     * from
+     */
+    public World(final WorldSnapshot snapshot, final SplittableRandom rand) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Invalid arguments for world");
         }
-        _height = height;
-
-        _world = new Place[_width][_height];
-        _places = new ArrayList<>();
-        for (int i = 0; i < _height; i++) {
-            for (int j = 0; j < _width; j++) {
-                _world[i][j] = new Place(new Coordinates(i, j));
-                _places.add(_world[i][j]);
-            }
+        if (snapshot.getTownCount() < 2) {
+            throw new IllegalArgumentException("Invalid value for towns: " + snapshot.getTownCount());
         }
-        setStates();
+        _snapshot = snapshot;
+        _width = snapshot.getWidth();
+        _height = snapshot.getHeight();
+        _maxClients = snapshot.getMaxClients();
+
+        _grid = new WorldGrid(snapshot);
+        _places = _grid.getPlaces();
+        _index = _grid.getSpatialIndex();
         _towns = new ArrayList<>();
-        setTowns();
-        setNonTraversablePlaces();
+        setTowns(snapshot);
 
         _rand = rand;
+        _events = EventSink.NONE;
         _shuffledIndex = new ArrayList<>();
         for (int i = 0; i < _towns.size(); i++) {
             _shuffledIndex.add(i);
         }
-        defineNeighbors();
+        _pathTable = new PathTable(this);
     }
 
     /**
+     * The map of a world made from a snapshot file is only parsed the first
+     * time it is asked for.
      *
-     * @return the places list
+     * @return the description the world was made from
      */
-    public List<Place> getPlaces() {
-        return _places;
+    public WorldMap getMap() {
+        return _snapshot.getMap();
     }
 
     /**
-     *
-     * @return the number of clients in the world
+     * @param events the sink to report the clients put in the world to
      */
-    private int getNumberOfClients() {
-        int numOfClients = 0;
-        for (Place place : _places) {
-            numOfClients += place.getClientList().size();
+    public void setEventSink(final EventSink events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Invalid value for events: " + events);
         }
-        return numOfClients;
+        _events = events;
     }
 
     /**
-     * Sets a random Place as the agent's starting location.
-     *
-     * @param agent The agent to set.
-     * @return The Place in which the Agent was put at.
+     * @return the number of columns of the world
      */
-    public Place setRandomAgent(Agent agent) {
-        int rand;
-        do {
-            rand = _rand.nextInt(25 - 0) + 0;
-        } while (!_places.get(rand).getAgentList().isEmpty());
-
-        _places.get(rand).addAgent(agent);
-        return _places.get(rand);
+    public int getWidth() {
+        return _width;
     }
 
     /**
-     * This is to run periodically in the run of the world.
-     *
-     * Each time it runs it checks how many clients could be put in the world,
-     * it then creates a unique random id for the client and puts him randomly
-     * in a town where it has no agents (so that it won't be unfair to the other
-     * agents).
+     * @return the number of rows of the world
      */
-    public void setRandomClients() {
-        final int remainingClients = MAX_CLIENTS - getNumberOfClients();
-        for (int i = 0; i < remainingClients; i++) {
-            int randID;
-            do {
-                randID = _rand.nextInt(MAX_CLIENTS - 0) + 0;
-            } while (idExists(randID));
-
-            Collections.shuffle(_shuffledIndex, _rand);
-
-            for (int j : _shuffledIndex) {
-                if (!_towns.get(j).hasAgent()) {
-                    _towns.get(j).addClient(new Client(randID, _towns.get(_rand.nextInt(_towns.size() - 1 - 0) + 0)));
-                    break;
-                }
-            }
-        }
+    public int getHeight() {
+        return _height;
     }
 
     /**
-     * @return true if the id already exists in the world, false if not
+     * @param x The row of the place
+     * @param y The column of the place
+     * @return the place at [x,y] or null if it is out of bounds of the world
      */
-    private boolean idExists(final int id) {
-        for (Place place : _places) {
-            for (Client client : place.getClientList()) {
-                if (id == client.getId()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public Place getPlace(final int x, final int y) {
+        final int id = _grid.getId(x, y);
+        return id == WorldGrid.NONE ? null : _grid.getPlace(id);
     }
 
     /**
-     * Sets the states of the four towns.
+     * The places are views of the grid, which are made as the list is walked
+     * through.
+     *
+     * @return the places list
      */
-    private void setStates() {
-        _world[0][0].setState('R');
-        _world[0][4].setState('G');
-        _world[4][0].setState('Y');
-        _world[4][3].setState('B');
+    public List<Place> getPlaces() {
+        return _places;
     }
 
     /**
-     * Adds the towns that were set to the _towns list.
+     * @return the state of the places of the world in flat arrays
      */
-    private void setTowns() {
-        _towns.add(_world[0][0]);
-        _towns.add(_world[0][4]);
-        _towns.add(_world[4][0]);
-        _towns.add(_world[4][3]);
+    public WorldGrid getGrid() {
+        return _grid;
     }
 
     /**
-     * Sets the pairs of places where traversing is not feasible and/or they are
-     * not visible to each other.
+     * @return the counts of the agents and the clients of the world by area
      */
-    private void setNonTraversablePlaces() {
-        _world[3][0].addNonTraversablePlace(_world[3][1]);
-        _world[3][0].addNonTraversablePlace(_world[4][1]);
-
-        _world[4][0].addNonTraversablePlace(_world[4][1]);
-        _world[4][0].addNonTraversablePlace(_world[3][1]);
-
-        _world[0][1].addNonTraversablePlace(_world[0][2]);
-        _world[0][1].addNonTraversablePlace(_world[1][2]);
+    public SpatialIndex getSpatialIndex() {
+        return _index;
+    }
 
-        _world[1][1].addNonTraversablePlace(_world[1][2]);
-        _world[1][1].addNonTraversablePlace(_world[0][2]);
+    /**
+     * @return the shortest paths between the places of the world
+     */
+    public PathTable getPathTable() {
+        return _pathTable;
+    }
 
-        _world[3][2].addNonTraversablePlace(_world[3][3]);
-        _world[3][2].addNonTraversablePlace(_world[4][3]);
+    /**
+     * Finds the places in line-of-sight of a place: the place itself and all
+     * the places that are one block away unless there is a wall in between.
+     *
+     * @param place The place
+     * @return the places in line-of-sight in the same order as the places of
+     * the world
+     */
+    public List<Place> getPlacesInSight(final Place place) {
+        return place.getVisiblePlaces();
+    }
 
-        _world[4][2].addNonTraversablePlace(_world[4][3]);
-        _world[4][2].addNonTraversablePlace(_world[3][3]);
+    /**
+     *
+     * @return the number of clients in the world
+     */
+    private int getNumberOfClients() {
+        return _index.getClientCount();
+    }
 
-        _world[3][1].addNonTraversablePlace(_world[3][0]);
-        _world[3][1].addNonTraversablePlace(_world[4][0]);
+    /**
+     * Sets a random Place without agents as the agent's starting location.
+     *
+     * Random places are tried a few times and if all of them have agents
+     * already (which only happens on crowded worlds) one of the places without
+     * agents is picked at random with the spatial index.
+     *
+     * @param agent The agent to set.
+     * @return The Place in which the Agent was put at.
+     */
+    public Place setRandomAgent(Agent agent) {
+        final int freePlaces = _grid.getSize() - _index.getOccupiedPlaceCount();
+        if (freePlaces == 0) {
+            throw new IllegalStateException("There is no place left for agent " + agent.getName());
+        }
 
-        _world[4][1].addNonTraversablePlace(_world[4][0]);
-        _world[4][1].addNonTraversablePlace(_world[3][0]);
+        Place place = null;
+        for (int attempt = 0; attempt < MAX_RANDOM_PLACE_ATTEMPTS && place == null; attempt++) {
+            final int candidate = _rand.nextInt(_grid.getSize());
+            if (_grid.getAgentCount(candidate) == 0) {
+                place = _grid.getPlace(candidate);
+            }
+        }
+        if (place == null) {
+            place = _index.getFreePlace(_rand.nextInt(freePlaces));
+        }
 
-        _world[0][2].addNonTraversablePlace(_world[0][1]);
-        _world[0][2].addNonTraversablePlace(_world[1][1]);
+        place.addAgent(agent);
+        return place;
+    }
 
-        _world[1][2].addNonTraversablePlace(_world[0][1]);
-        _world[1][2].addNonTraversablePlace(_world[1][1]);
+    /**
+     * This is to run periodically in the run of the world.
+     *
+     * Each time it runs it checks how many clients could be put in the world,
+     * it then picks a random id no client in the world has and puts the
+     * client randomly in a town where it has no agents (so that it won't be
+     * unfair to the other agents). Every client put in the world is reported
+     * to the event sink.
+     *
+     * The free ids are kept by the client registry of the grid, so a client
+     * costs a single draw however many clients are in the world already.
+     */
+    public void setRandomClients() {
+        final ClientRegistry clients = _grid.getClientRegistry();
+        final int remainingClients = _maxClients - getNumberOfClients();
+        for (int i = 0; i < remainingClients && clients.getFreeIdCount() > 0; i++) {
+            final int randID = clients.getFreeId(_rand.nextInt(clients.getFreeIdCount()));
 
-        _world[3][3].addNonTraversablePlace(_world[3][2]);
-        _world[3][3].addNonTraversablePlace(_world[4][2]);
+            Helper.shuffle(_shuffledIndex, _rand);
 
-        _world[4][3].addNonTraversablePlace(_world[4][2]);
-        _world[4][3].addNonTraversablePlace(_world[3][2]);
+            for (int j : _shuffledIndex) {
+                if (!_towns.get(j).hasAgent()) {
+                    final Client client = new Client(randID, _towns.get(_rand.nextInt(_towns.size() - 1 - 0) + 0));
+                    _towns.get(j).addClient(client);
+                    _events.clientAdded(client, _towns.get(j));
+                    break;
+                }
+            }
+        }
     }
 
     /**
-     * Defines the neighbours of each Place.
+     * Adds the towns of the snapshot to the _towns list in the order of the
+     * map. Their states are kept by the snapshot.
+     *
+     * @param snapshot The static part of the world
      */
-    private void defineNeighbors() {
-        _places.stream().forEach((place) -> {
-            _places.stream().filter((neighbor) -> (!neighbor.isIn(place.getNonTraversablePlaces())))
-                    .forEach((neighbor) -> {
-                        final int x1 = place.getCoords().getX();
-                        final int y1 = place.getCoords().getY();
-                        final int x2 = neighbor.getCoords().getX();
-                        final int y2 = neighbor.getCoords().getY();
-                        if ((Math.abs(x2 - x1) == 1 && Math.abs(y2 - y1) == 0)
-                        || (Math.abs(x2 - x1) == 0 && Math.abs(y2 - y1) == 1)) {
-                            place.addTraversablePlace(neighbor);
-                        }
-                    });
-        });
+    private void setTowns(final WorldSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getTownCount(); i++) {
+            _towns.add(_grid.getPlace(snapshot.getTown(i)));
+        }
     }
 
     List<Integer> _shuffledIndex;
-    final Random _rand;
+    final SplittableRandom _rand;
+    private EventSink _events;
+    private final WorldSnapshot _snapshot;
 
     final int _width;
     final int _height;
-    Place[][] _world;
+    private final WorldGrid _grid;
     List<Place> _towns;
     List<Place> _places;
-    
+    private final PathTable _pathTable;
+    private final SpatialIndex _index;
+
     /**
      * The maximum number of clients to be in the world at any given time.
      */
-    private final static int MAX_CLIENTS = 10;
+    private final int _maxClients;
+
+    /**
+     * The number of random places tried for a new agent before picking one of
+     * the places without agents.
+     */
+    private static final int MAX_RANDOM_PLACE_ATTEMPTS = 32;
 }
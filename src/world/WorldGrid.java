@@ -0,0 +1,300 @@
+package world;
+
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The WorldGrid holds the state of a world in flat arrays indexed by place id
+ * instead of one object graph per place, so that worlds with millions of
+ * places fit in memory and are walked through without chasing pointers.
+ *
+ * The id of the place at row x and column y is x * width + y. For every place
+ * the grid keeps how many agents and clients are on it; its state, the walls
+ * around it and (in compressed rows) the ids of its traversable places are read
+ * from the snapshot of the world, which never changes and may be shared by many
+ * grids. The ids of the clients in the world are kept by the client registry of
+ * the grid. The Place objects are thin views over the grid: the view of a place
+ * is only made the first time the place is asked for and is the same object
+ * from then on, so a world whose places are never looked at costs nothing but
+ * its arrays.
+ *
+ * The counts are only updated when agents move or clients come and go, which
+ * happens one agent at a time.
+ */
+public class WorldGrid {
+
+    /**
+     * Builds the grid of the map given: its towns, its walls and the
+     * traversable places of every place.
+     *
+     * @param map The description of the world
+     */
+    public WorldGrid(final WorldMap map) {
+        this(WorldSnapshot.of(map));
+    }
+
+    /**
+     * Builds a grid over the snapshot given. The towns, the walls and the
+     * traversable places are read from the snapshot, which may be shared with
+     * other grids, so only the counts belong to this grid.
+     *
+     * @param snapshot The static part of the world
+     */
+    public WorldGrid(final WorldSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Invalid value for snapshot: " + snapshot);
+        }
+        _snapshot = snapshot;
+        _width = snapshot.getWidth();
+        _height = snapshot.getHeight();
+        _size = _width * _height;
+        _neighborOffsets = snapshot.getNeighborOffsets();
+        _neighbors = snapshot.getNeighbors();
+
+        _agentCounts = new int[_size];
+        _clientCounts = new int[_size];
+        _places = new AtomicReferenceArray<>(_size);
+        _placeList = new PlaceList();
+        _index = new SpatialIndex(this);
+        _clients = new ClientRegistry(snapshot.getMaxClients());
+    }
+
+    /**
+     * @return the static part of the world, which never changes during a game
+     */
+    public WorldSnapshot getSnapshot() {
+        return _snapshot;
+    }
+
+    /**
+     * @return the number of columns of the world
+     */
+    public int getWidth() {
+        return _width;
+    }
+
+    /**
+     * @return the number of rows of the world
+     */
+    public int getHeight() {
+        return _height;
+    }
+
+    /**
+     * @return the number of places of the world
+     */
+    public int getSize() {
+        return _size;
+    }
+
+    /**
+     * @param x The row of the place
+     * @param y The column of the place
+     * @return the id of the place at [x,y] or -1 if it is out of bounds of the
+     * world
+     */
+    public int getId(final int x, final int y) {
+        if (x < 0 || x >= _height || y < 0 || y >= _width) {
+            return NONE;
+        }
+        return x * _width + y;
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the row of the place
+     */
+    public int getX(final int id) {
+        return id / _width;
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the column of the place
+     */
+    public int getY(final int id) {
+        return id % _width;
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the state of the place (an uppercase letter for a town or - if
+     * it is not a town)
+     */
+    public char getState(final int id) {
+        return _snapshot.getState(id);
+    }
+
+    /**
+     * @param id The id of the place
+     * @param rowOffset The rows from the place to the other place
+     * @param columnOffset The columns from the place to the other place
+     * @return true if there is a wall between the place and the place at the
+     * offsets given (which has to be next to it, diagonally included)
+     */
+    public boolean hasWall(final int id, final int rowOffset, final int columnOffset) {
+        return _snapshot.hasWall(id, rowOffset, columnOffset);
+    }
+
+    /**
+     * @param id The id of the place
+     * @param rowOffset The rows to move, -1, 0 or 1
+     * @param columnOffset The columns to move, -1, 0 or 1
+     * @return the id of the place a single move up, down, left or right of the
+     * place leads to or -1 if it is out of bounds of the world, there is a
+     * wall in between or the offsets are not a single move
+     */
+    public int getTraversableId(final int id, final int rowOffset, final int columnOffset) {
+        if (Math.abs(rowOffset) + Math.abs(columnOffset) != 1) {
+            return NONE;
+        }
+        final int neighbor = getId(getX(id) + rowOffset, getY(id) + columnOffset);
+        if (neighbor == NONE || hasWall(id, rowOffset, columnOffset)) {
+            return NONE;
+        }
+        return neighbor;
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the number of agents on the place
+     */
+    public int getAgentCount(final int id) {
+        return _agentCounts[id];
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the number of clients on the place, the ones onboard included
+     */
+    public int getClientCount(final int id) {
+        return _clientCounts[id];
+    }
+
+    /**
+     * Called by a place after an agent was added to it.
+     *
+     * @param id The id of the place
+     */
+    void agentAdded(final int id) {
+        _agentCounts[id]++;
+        _index.agentAdded(id);
+    }
+
+    /**
+     * Called by a place after agents were removed from it.
+     *
+     * @param id The id of the place
+     * @param removed The number of agents removed
+     */
+    void agentsRemoved(final int id, final int removed) {
+        _agentCounts[id] -= removed;
+        _index.agentsRemoved(id, removed);
+    }
+
+    /**
+     * Called by a place after a client was added to it.
+     *
+     * @param id The id of the place
+     * @param clientId The id of the client
+     */
+    void clientAdded(final int id, final int clientId) {
+        _clientCounts[id]++;
+        _index.clientAdded(id);
+        _clients.clientAdded(clientId);
+    }
+
+    /**
+     * Called by a place after clients were removed from it.
+     *
+     * @param id The id of the place
+     * @param clientId The id of the clients
+     * @param removed The number of clients with that id removed
+     */
+    void clientsRemoved(final int id, final int clientId, final int removed) {
+        _clientCounts[id] -= removed;
+        _index.clientsRemoved(id, removed);
+        _clients.clientsRemoved(clientId, removed);
+    }
+
+    /**
+     * Finds the view of a place, making it the first time it is asked for.
+     * Two threads asking for the same place at once still get the same view.
+     *
+     * @param id The id of the place
+     * @return the place
+     */
+    public Place getPlace(final int id) {
+        final Place place = _places.get(id);
+        if (place != null) {
+            return place;
+        }
+        _places.compareAndSet(id, null, new Place(this, id));
+        return _places.get(id);
+    }
+
+    /**
+     * The views of the places are made as the list is walked through.
+     *
+     * @return all the places of the world in the order of their ids
+     */
+    public List<Place> getPlaces() {
+        return _placeList;
+    }
+
+    /**
+     * @return the counts of the agents and the clients of the world by area
+     */
+    public SpatialIndex getSpatialIndex() {
+        return _index;
+    }
+
+    /**
+     * @return the ids of the clients in the world
+     */
+    public ClientRegistry getClientRegistry() {
+        return _clients;
+    }
+
+    /**
+     * The places of the grid as a list, which makes their views as they are
+     * asked for.
+     */
+    private class PlaceList extends AbstractList<Place> implements RandomAccess {
+
+        @Override
+        public Place get(final int index) {
+            if (index < 0 || index >= _size) {
+                throw new IndexOutOfBoundsException("Invalid value for index: " + index);
+            }
+            return getPlace(index);
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+    }
+
+    private final int _width;
+    private final int _height;
+    private final int _size;
+    private final WorldSnapshot _snapshot;
+    private final int[] _agentCounts;
+    private final int[] _clientCounts;
+    final IntBuffer _neighborOffsets;
+    final IntBuffer _neighbors;
+    private final AtomicReferenceArray<Place> _places;
+    private final List<Place> _placeList;
+    private final SpatialIndex _index;
+    private final ClientRegistry _clients;
+
+    /**
+     * The id of no place.
+     */
+    public static final int NONE = -1;
+
+}
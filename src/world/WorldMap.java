@@ -0,0 +1,403 @@
+package world;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import utilities.generalutils.Coordinates;
+
+/**
+ * The WorldMap is the description of a world: its size, its towns, the walls
+ * between places and how many clients it can hold at once.
+ *
+ * A map can be built in code, loaded from a text description or generated at
+ * random for larger experiments. The text description has one entry per line:
+ *
+ * <pre>
+ * # comment
+ * size &lt;width&gt; &lt;height&gt;
+ * clients &lt;maximum number of clients&gt;
+ * town &lt;state&gt; &lt;x&gt; &lt;y&gt;
+ * wall &lt;x1&gt; &lt;y1&gt; &lt;x2&gt; &lt;y2&gt;
+ * </pre>
+ *
+ * where x is the row and y the column of a place. A wall makes the two places
+ * non-traversable and not visible to each other in both directions.
+ */
+public class WorldMap {
+
+    /**
+     * A WorldMap starts without any towns or walls.
+     *
+     * @param width The number of columns of the world
+     * @param height The number of rows of the world
+     * @param maxClients The maximum number of clients in the world at any given
+     * time
+     */
+    public WorldMap(final int width, final int height, final int maxClients) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Invalid value for width: " + width);
+        }
+        _width = width;
+
+        if (height < 1) {
+            throw new IllegalArgumentException("Invalid value for height: " + height);
+        }
+        _height = height;
+
+        if (maxClients < 1) {
+            throw new IllegalArgumentException("Invalid value for clients: " + maxClients);
+        }
+        _maxClients = maxClients;
+
+        _towns = new ArrayList<>();
+        _townStates = new ArrayList<>();
+        _walls = new ArrayList<>();
+    }
+
+    /**
+     * @return the default 5x5 world of the game
+     */
+    public static WorldMap defaultMap() {
+        final WorldMap map = new WorldMap(5, 5, 10);
+        map.addTown('R', 0, 0);
+        map.addTown('G', 0, 4);
+        map.addTown('Y', 4, 0);
+        map.addTown('B', 4, 3);
+
+        map.addWall(3, 0, 3, 1);
+        map.addWall(3, 0, 4, 1);
+        map.addWall(4, 0, 4, 1);
+        map.addWall(4, 0, 3, 1);
+
+        map.addWall(0, 1, 0, 2);
+        map.addWall(0, 1, 1, 2);
+        map.addWall(1, 1, 1, 2);
+        map.addWall(1, 1, 0, 2);
+
+        map.addWall(3, 2, 3, 3);
+        map.addWall(3, 2, 4, 3);
+        map.addWall(4, 2, 4, 3);
+        map.addWall(4, 2, 3, 3);
+        return map;
+    }
+
+    /**
+     * Generates a random map with the same density of towns, walls and clients
+     * as the default map.
+     *
+     * @param width The number of columns of the world
+     * @param height The number of rows of the world
+     * @param rand The random object
+     * @return the generated map
+     */
+    public static WorldMap generate(final int width, final int height, final Random rand) {
+        final int cells = width * height;
+        return generate(width, height,
+                Math.max(2, cells * 4 / 25),
+                cells * 3 / 25,
+                Math.max(1, cells * 10 / 25),
+                rand);
+    }
+
+    /**
+     * Generates a random map.
+     *
+     * Towns are put on distinct random places. Every wall is two places long
+     * and runs between two neighbouring columns like the walls of the default
+     * map. Walls on the same pair of columns are always at least one row apart
+     * so that every place can still be reached from every other place. If
+     * there is no room left for more walls fewer are generated.
+     *
+     * @param width The number of columns of the world
+     * @param height The number of rows of the world
+     * @param towns The number of towns
+     * @param walls The number of walls
+     * @param maxClients The maximum number of clients in the world at any given
+     * time
+     * @param rand The random object
+     * @return the generated map
+     */
+    public static WorldMap generate(final int width, final int height, final int towns,
+            final int walls, final int maxClients, final Random rand) {
+        if (towns < 2 || towns > width * height) {
+            throw new IllegalArgumentException("Invalid value for towns: " + towns);
+        }
+        final WorldMap map = new WorldMap(width, height, maxClients);
+
+        final boolean[] isTown = new boolean[width * height];
+        for (int i = 0; i < towns; i++) {
+            int index;
+            do {
+                index = rand.nextInt(width * height);
+            } while (isTown[index]);
+            isTown[index] = true;
+            map.addTown(TOWN_STATES[i % TOWN_STATES.length], index / width, index % width);
+        }
+
+        // blocked[x * width + y] is true if the boundary between columns y and
+        // y + 1 is already walled at row x or right next to it.
+        final boolean[] blocked = new boolean[width * height];
+        final int maxAttempts = walls * 10;
+        int placedWalls = 0;
+        for (int attempt = 0; attempt < maxAttempts && placedWalls < walls && width > 1 && height > 2; attempt++) {
+            final int x = rand.nextInt(height - 1);
+            final int y = rand.nextInt(width - 1);
+            if (blocked[x * width + y] || blocked[(x + 1) * width + y]) {
+                continue;
+            }
+            for (int row = Math.max(0, x - 1); row <= Math.min(height - 1, x + 2); row++) {
+                blocked[row * width + y] = true;
+            }
+            map.addWall(x, y, x, y + 1);
+            map.addWall(x, y, x + 1, y + 1);
+            map.addWall(x + 1, y, x + 1, y + 1);
+            map.addWall(x + 1, y, x, y + 1);
+            placedWalls++;
+        }
+        return map;
+    }
+
+    /**
+     * Loads a map from a file with a text description.
+     *
+     * @param path The path of the file
+     * @return the map that was loaded
+     * @throws IOException if the file could not be read
+     */
+    public static WorldMap load(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Works exactly like #parse(java.io.Reader) except the description is
+     * given as a string.
+     *
+     * @see #parse(java.io.Reader)
+     */
+    public static WorldMap parse(final String description) {
+        try {
+            return parse(new StringReader(description));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Reads a map from a text description. The size has to be given before any
+     * town or wall.
+     *
+     * @param description The reader of the description
+     * @return the map that was read
+     * @throws IOException if the description could not be read
+     */
+    public static WorldMap parse(final Reader description) throws IOException {
+        final BufferedReader reader = new BufferedReader(description);
+        WorldMap map = null;
+        int width = 0;
+        int height = 0;
+        int maxClients = DEFAULT_MAX_CLIENTS;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final String[] tokens = line.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "size":
+                        checkTokens(tokens, 3);
+                        if (map != null) {
+                            throw new IllegalArgumentException("size has to be given before any town or wall");
+                        }
+                        width = Integer.parseInt(tokens[1]);
+                        height = Integer.parseInt(tokens[2]);
+                        break;
+                    case "clients":
+                        checkTokens(tokens, 2);
+                        maxClients = Integer.parseInt(tokens[1]);
+                        break;
+                    case "town":
+                        checkTokens(tokens, 4);
+                        if (tokens[1].length() != 1) {
+                            throw new IllegalArgumentException("Invalid value for state: " + tokens[1]);
+                        }
+                        map = createIfMissing(map, width, height, maxClients);
+                        map.addTown(tokens[1].charAt(0), Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]));
+                        break;
+                    case "wall":
+                        checkTokens(tokens, 5);
+                        map = createIfMissing(map, width, height, maxClients);
+                        map.addWall(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]),
+                                Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown entry: " + tokens[0]);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Line " + Integer.toString(lineNumber) + ": " + ex.getMessage(), ex);
+            }
+        }
+        return createIfMissing(map, width, height, maxClients);
+    }
+
+    /**
+     * Creates the map of the description once its size is known.
+     */
+    private static WorldMap createIfMissing(final WorldMap map, final int width, final int height, final int maxClients) {
+        if (map != null) {
+            if (map._maxClients != maxClients) {
+                throw new IllegalArgumentException("clients has to be given before any town or wall");
+            }
+            return map;
+        }
+        if (width == 0 || height == 0) {
+            throw new IllegalArgumentException("size has to be given before any town or wall");
+        }
+        return new WorldMap(width, height, maxClients);
+    }
+
+    /**
+     * Checks the number of tokens of a line of the description.
+     */
+    private static void checkTokens(final String[] tokens, final int expected) {
+        if (tokens.length != expected) {
+            throw new IllegalArgumentException("Invalid number of values for " + tokens[0]);
+        }
+    }
+
+    /**
+     * Adds a town to the map.
+     *
+     * @param state The state of the town (an uppercase letter)
+     * @param x The row of the town
+     * @param y The column of the town
+     */
+    public void addTown(final char state, final int x, final int y) {
+        checkBounds(x, y);
+        if (!Character.isUpperCase(state)) {
+            throw new IllegalArgumentException("Invalid value for state: " + state);
+        }
+        _towns.add(new Coordinates(x, y));
+        _townStates.add(state);
+    }
+
+    /**
+     * Adds a wall between two places of the map.
+     *
+     * @param x1 The row of the first place
+     * @param y1 The column of the first place
+     * @param x2 The row of the second place
+     * @param y2 The column of the second place
+     */
+    public void addWall(final int x1, final int y1, final int x2, final int y2) {
+        checkBounds(x1, y1);
+        checkBounds(x2, y2);
+        _walls.add(new Coordinates[]{new Coordinates(x1, y1), new Coordinates(x2, y2)});
+    }
+
+    /**
+     * Checks that a place is inside the map.
+     */
+    private void checkBounds(final int x, final int y) {
+        if (x < 0 || x >= _height) {
+            throw new IllegalArgumentException("Invalid value for x: " + x);
+        }
+        if (y < 0 || y >= _width) {
+            throw new IllegalArgumentException("Invalid value for y: " + y);
+        }
+    }
+
+    /**
+     * @return the number of columns of the map
+     */
+    public int getWidth() {
+        return _width;
+    }
+
+    /**
+     * @return the number of rows of the map
+     */
+    public int getHeight() {
+        return _height;
+    }
+
+    /**
+     * @return the maximum number of clients in the world at any given time
+     */
+    public int getMaxClients() {
+        return _maxClients;
+    }
+
+    /**
+     * @return the coordinates of the towns in the order they were added
+     */
+    public List<Coordinates> getTowns() {
+        return Collections.unmodifiableList(_towns);
+    }
+
+    /**
+     * @return the states of the towns in the order they were added
+     */
+    public List<Character> getTownStates() {
+        return Collections.unmodifiableList(_townStates);
+    }
+
+    /**
+     * @return the pairs of places that have a wall in between
+     */
+    public List<Coordinates[]> getWalls() {
+        return Collections.unmodifiableList(_walls);
+    }
+
+    /**
+     * @return the text description of this map
+     */
+    @Override
+    public String toString() {
+        final StringBuilder description = new StringBuilder();
+        description.append("size ").append(_width).append(' ').append(_height).append('\n');
+        description.append("clients ").append(_maxClients).append('\n');
+        for (int i = 0; i < _towns.size(); i++) {
+            description.append("town ").append(_townStates.get(i))
+                    .append(' ').append(_towns.get(i).getX())
+                    .append(' ').append(_towns.get(i).getY()).append('\n');
+        }
+        for (Coordinates[] wall : _walls) {
+            description.append("wall ").append(wall[0].getX()).append(' ').append(wall[0].getY())
+                    .append(' ').append(wall[1].getX()).append(' ').append(wall[1].getY()).append('\n');
+        }
+        return description.toString();
+    }
+
+    private final int _width;
+    private final int _height;
+    private final int _maxClients;
+    private final List<Coordinates> _towns;
+    private final List<Character> _townStates;
+    private final List<Coordinates[]> _walls;
+
+    /**
+     * The maximum number of clients of a description that does not give one.
+     */
+    private static final int DEFAULT_MAX_CLIENTS = 10;
+
+    /**
+     * The states given to the towns of a generated map in turn.
+     */
+    private static final char[] TOWN_STATES = {'R', 'G', 'Y', 'B'};
+}
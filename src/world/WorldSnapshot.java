@@ -0,0 +1,523 @@
+package world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import utilities.generalutils.Coordinates;
+
+/**
+ * The WorldSnapshot is the part of a world that never changes during a game:
+ * its size, its towns, the walls around every place, the traversable places
+ * of every place and, on small worlds, the shortest paths between all the
+ * places. A snapshot is shared by every world made from it, so the games of a
+ * batch or a tournament only pay for it once.
+ *
+ * A snapshot is either built in memory from a map or mapped read-only from a
+ * snapshot file, in which case opening it reads nothing but its header: the
+ * arrays are read straight from the mapped pages as they are needed and every
+ * process on the same machine that maps the same file shares those pages. A
+ * snapshot file is written with write(Path) and has the layout:
+ *
+ * <pre>
+ * header         MAGIC VERSION width height maxClients towns edges complete
+ *                mapLength
+ * towns          int[towns]        the ids of the towns in the order of the map
+ * neighborOffsets int[size + 1]
+ * neighbors      int[edges]
+ * nextHops       int[size * size]  only if complete
+ * distances      int[size * size]  only if complete
+ * states         char[size]        padded to a multiple of four bytes
+ * walls          short[size]       padded to a multiple of four bytes
+ * map            byte[mapLength]   the text description of the map in UTF-8
+ * </pre>
+ *
+ * where every number is little-endian and size is width * height. The map
+ * text is only parsed if the map itself is asked for.
+ *
+ * Usage: WorldSnapshot [map] [snapshot] [seed]
+ *
+ * writes the snapshot of a map, which is either the path of a map description
+ * or WIDTHxHEIGHT for a map generated with the seed given.
+ */
+public class WorldSnapshot {
+
+    /**
+     * Builds the snapshot of a map in memory: the states and the walls of its
+     * places, their traversable places and, if the world is small enough, the
+     * shortest paths between all of them.
+     *
+     * @param map The description of the world
+     * @return the snapshot of the map
+     */
+    public static WorldSnapshot of(final WorldMap map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Invalid value for map: " + map);
+        }
+        return new WorldSnapshot(map);
+    }
+
+    /**
+     * @param map The description of the world
+     */
+    private WorldSnapshot(final WorldMap map) {
+        _width = map.getWidth();
+        _height = map.getHeight();
+        _maxClients = map.getMaxClients();
+        _map = map;
+        _mapText = null;
+        final int size = _width * _height;
+
+        final int[] towns = new int[map.getTowns().size()];
+        final char[] states = new char[size];
+        for (int id = 0; id < size; id++) {
+            states[id] = '-';
+        }
+        for (int i = 0; i < towns.length; i++) {
+            final Coordinates coords = map.getTowns().get(i);
+            towns[i] = coords.getX() * _width + coords.getY();
+            states[towns[i]] = map.getTownStates().get(i);
+        }
+        _towns = IntBuffer.wrap(towns);
+        _states = CharBuffer.wrap(states);
+
+        final short[] walls = new short[size];
+        for (Coordinates[] wall : map.getWalls()) {
+            addWall(walls, wall[0], wall[1]);
+            addWall(walls, wall[1], wall[0]);
+        }
+        _walls = ShortBuffer.wrap(walls);
+
+        final int[] neighborOffsets = new int[size + 1];
+        int edges = 0;
+        for (int id = 0; id < size; id++) {
+            for (int[] move : MOVES) {
+                if (getTraversableId(id, move[0], move[1]) != WorldGrid.NONE) {
+                    edges++;
+                }
+            }
+        }
+        final int[] neighbors = new int[edges];
+        edges = 0;
+        for (int id = 0; id < size; id++) {
+            neighborOffsets[id] = edges;
+            for (int[] move : MOVES) {
+                final int neighbor = getTraversableId(id, move[0], move[1]);
+                if (neighbor != WorldGrid.NONE) {
+                    neighbors[edges++] = neighbor;
+                }
+            }
+        }
+        neighborOffsets[size] = edges;
+        _neighborOffsets = IntBuffer.wrap(neighborOffsets);
+        _neighbors = IntBuffer.wrap(neighbors);
+
+        if (PathTable.isComplete(size)) {
+            final int[] nextHops = new int[size * size];
+            final int[] distances = new int[size * size];
+            PathTable.computeCompleteTable(size, _neighborOffsets, _neighbors, nextHops, distances);
+            _nextHops = IntBuffer.wrap(nextHops);
+            _distances = IntBuffer.wrap(distances);
+        } else {
+            _nextHops = null;
+            _distances = null;
+        }
+    }
+
+    /**
+     * Keeps the wall from one place to the other in the walls of the first
+     * place. Walls between places that are not next to each other (diagonally
+     * included) never block anything, so they are not kept.
+     */
+    private void addWall(final short[] walls, final Coordinates from, final Coordinates to) {
+        final int rowOffset = to.getX() - from.getX();
+        final int columnOffset = to.getY() - from.getY();
+        if (Math.abs(rowOffset) <= 1 && Math.abs(columnOffset) <= 1) {
+            walls[from.getX() * _width + from.getY()] |= wallBit(rowOffset, columnOffset);
+        }
+    }
+
+    /**
+     * Opens a snapshot file. Only the header is read; the rest of the file is
+     * mapped and read as it is needed. The file must not change while the
+     * snapshot is in use.
+     *
+     * @param path The path of the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file could not be read or is not a snapshot
+     */
+    public static WorldSnapshot open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The snapshot is too large: " + path);
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new WorldSnapshot(buffer, path);
+        }
+    }
+
+    /**
+     * @param buffer The mapped snapshot file
+     * @param path The path of the file, for the errors
+     * @throws IOException if the file is not a snapshot
+     */
+    private WorldSnapshot(final ByteBuffer buffer, final Path path) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a world snapshot: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + buffer.getInt(4));
+        }
+        _width = buffer.getInt(8);
+        _height = buffer.getInt(12);
+        _maxClients = buffer.getInt(16);
+        final int towns = buffer.getInt(20);
+        final int edges = buffer.getInt(24);
+        final boolean complete = buffer.getInt(28) != 0;
+        final int mapLength = buffer.getInt(32);
+        final int size = _width * _height;
+        final long tableEntries = complete ? (long) size * size : 0;
+        final long expected = fileSize(size, towns, edges, tableEntries, mapLength);
+        if (_width < 1 || _height < 1 || buffer.remaining() != expected) {
+            throw new IOException("Corrupt world snapshot: " + path);
+        }
+
+        int offset = HEADER_BYTES;
+        _towns = intSection(buffer, offset, towns);
+        offset += towns * 4;
+        _neighborOffsets = intSection(buffer, offset, size + 1);
+        offset += (size + 1) * 4;
+        _neighbors = intSection(buffer, offset, edges);
+        offset += edges * 4;
+        if (complete) {
+            _nextHops = intSection(buffer, offset, (int) tableEntries);
+            offset += (int) tableEntries * 4;
+            _distances = intSection(buffer, offset, (int) tableEntries);
+            offset += (int) tableEntries * 4;
+        } else {
+            _nextHops = null;
+            _distances = null;
+        }
+        _states = section(buffer, offset, size * 2).asCharBuffer();
+        offset += pad(size * 2);
+        _walls = section(buffer, offset, size * 2).asShortBuffer();
+        offset += pad(size * 2);
+        _mapText = section(buffer, offset, mapLength);
+        _map = null;
+    }
+
+    /**
+     * @return the part of the buffer from offset on, length bytes long
+     */
+    private static ByteBuffer section(final ByteBuffer buffer, final int offset, final int length) {
+        final ByteBuffer section = buffer.duplicate();
+        section.position(offset);
+        section.limit(offset + length);
+        return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return the ints of the buffer from offset on
+     */
+    private static IntBuffer intSection(final ByteBuffer buffer, final int offset, final int length) {
+        return section(buffer, offset, length * 4).asIntBuffer();
+    }
+
+    /**
+     * @return the length rounded up to a multiple of four bytes
+     */
+    private static int pad(final int length) {
+        return (length + 3) & ~3;
+    }
+
+    /**
+     * @return the number of bytes of a snapshot file
+     */
+    private static long fileSize(final int size, final int towns, final int edges, final long tableEntries,
+            final int mapLength) {
+        return HEADER_BYTES + 4L * towns + 4L * (size + 1) + 4L * edges + 8L * tableEntries
+                + 2L * pad(size * 2) + mapLength;
+    }
+
+    /**
+     * Writes the snapshot to a file, which open(Path) maps.
+     *
+     * @param path The path of the snapshot file
+     * @throws IOException if the file could not be written
+     */
+    public void write(final Path path) throws IOException {
+        final int size = getSize();
+        final byte[] mapText = getMap().toString().getBytes(StandardCharsets.UTF_8);
+        final long tableEntries = _nextHops == null ? 0 : (long) size * size;
+        final long length = fileSize(size, _towns.limit(), _neighbors.limit(), tableEntries, mapText.length);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The snapshot is too large: " + Long.toString(length) + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(_width).putInt(_height).putInt(_maxClients)
+                    .putInt(_towns.limit()).putInt(_neighbors.limit())
+                    .putInt(_nextHops == null ? 0 : 1).putInt(mapText.length);
+
+            int offset = HEADER_BYTES;
+            offset = putInts(buffer, offset, _towns);
+            offset = putInts(buffer, offset, _neighborOffsets);
+            offset = putInts(buffer, offset, _neighbors);
+            if (_nextHops != null) {
+                offset = putInts(buffer, offset, _nextHops);
+                offset = putInts(buffer, offset, _distances);
+            }
+            section(buffer, offset, size * 2).asCharBuffer().put(_states.duplicate());
+            offset += pad(size * 2);
+            section(buffer, offset, size * 2).asShortBuffer().put(_walls.duplicate());
+            offset += pad(size * 2);
+            section(buffer, offset, mapText.length).put(mapText);
+            buffer.force();
+        }
+    }
+
+    /**
+     * @return the offset after the ints written
+     */
+    private static int putInts(final ByteBuffer buffer, final int offset, final IntBuffer values) {
+        intSection(buffer, offset, values.limit()).put(values.duplicate());
+        return offset + values.limit() * 4;
+    }
+
+    /**
+     * @param path The path of a file
+     * @return true if the file starts like a snapshot file, false if not
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isSnapshot(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * The rows are made the first time they are asked for, so a snapshot whose
+     * paths are never looked up costs nothing for them.
+     *
+     * @return the rows of the path table kept for all the worlds made from
+     * this snapshot, on a world whose table is not complete
+     */
+    synchronized PathTable.Rows getPathRows() {
+        if (_pathRows == null) {
+            _pathRows = new PathTable.Rows(getSize(), _neighborOffsets, _neighbors);
+        }
+        return _pathRows;
+    }
+
+    /**
+     * The map of a snapshot file is parsed the first time it is asked for.
+     *
+     * @return the description of the world
+     */
+    public synchronized WorldMap getMap() {
+        if (_map == null) {
+            final ByteBuffer text = _mapText.duplicate();
+            final byte[] bytes = new byte[text.remaining()];
+            text.get(bytes);
+            _map = WorldMap.parse(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return _map;
+    }
+
+    /**
+     * @return the number of columns of the world
+     */
+    public int getWidth() {
+        return _width;
+    }
+
+    /**
+     * @return the number of rows of the world
+     */
+    public int getHeight() {
+        return _height;
+    }
+
+    /**
+     * @return the number of places of the world
+     */
+    public int getSize() {
+        return _width * _height;
+    }
+
+    /**
+     * @return the maximum number of clients in the world at any given time
+     */
+    public int getMaxClients() {
+        return _maxClients;
+    }
+
+    /**
+     * @return the number of towns
+     */
+    public int getTownCount() {
+        return _towns.limit();
+    }
+
+    /**
+     * @param index The index of the town in the order of the map
+     * @return the id of the place of the town
+     */
+    public int getTown(final int index) {
+        return _towns.get(index);
+    }
+
+    /**
+     * @param id The id of the place
+     * @return the state of the place (an uppercase letter for a town or - if
+     * it is not a town)
+     */
+    public char getState(final int id) {
+        return _states.get(id);
+    }
+
+    /**
+     * @param id The id of the place
+     * @param rowOffset The rows from the place to the other place
+     * @param columnOffset The columns from the place to the other place
+     * @return true if there is a wall between the place and the place at the
+     * offsets given (which has to be next to it, diagonally included)
+     */
+    public boolean hasWall(final int id, final int rowOffset, final int columnOffset) {
+        return (_walls.get(id) & wallBit(rowOffset, columnOffset)) != 0;
+    }
+
+    /**
+     * @return the bit of the walls of a place that stands for a wall towards
+     * the place at the offsets given
+     */
+    private static short wallBit(final int rowOffset, final int columnOffset) {
+        return (short) (1 << ((rowOffset + 1) * 3 + columnOffset + 1));
+    }
+
+    /**
+     * @param id The id of the place
+     * @param rowOffset The rows to move, -1, 0 or 1
+     * @param columnOffset The columns to move, -1, 0 or 1
+     * @return the id of the place a single move up, down, left or right of the
+     * place leads to or -1 if it is out of bounds of the world, there is a
+     * wall in between or the offsets are not a single move
+     */
+    public int getTraversableId(final int id, final int rowOffset, final int columnOffset) {
+        if (Math.abs(rowOffset) + Math.abs(columnOffset) != 1) {
+            return WorldGrid.NONE;
+        }
+        final int x = id / _width + rowOffset;
+        final int y = id % _width + columnOffset;
+        if (x < 0 || x >= _height || y < 0 || y >= _width || hasWall(id, rowOffset, columnOffset)) {
+            return WorldGrid.NONE;
+        }
+        return x * _width + y;
+    }
+
+    /**
+     * @return the ids of the traversable places of every place in compressed
+     * rows: the neighbours of the place with id i are the ids from
+     * getNeighbors() at getNeighborOffsets().get(i) up to
+     * getNeighborOffsets().get(i + 1) - 1
+     */
+    IntBuffer getNeighborOffsets() {
+        return _neighborOffsets;
+    }
+
+    /**
+     * @return the ids of the traversable places of every place
+     * @see #getNeighborOffsets()
+     */
+    IntBuffer getNeighbors() {
+        return _neighbors;
+    }
+
+    /**
+     * @return the first step from every place to every place, a row of
+     * destinations per source, or null if the world is too large for a
+     * complete table
+     */
+    IntBuffer getNextHops() {
+        return _nextHops;
+    }
+
+    /**
+     * @return the distance from every place to every place, laid out like the
+     * next steps, or null if the world is too large for a complete table
+     */
+    IntBuffer getDistances() {
+        return _distances;
+    }
+
+    /**
+     * @param args the map and the path of the snapshot file to write, and the
+     * seed of a generated map
+     * @throws IOException if the map could not be read or the snapshot could
+     * not be written
+     */
+    public static void main(String args[]) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: WorldSnapshot [map] [snapshot] [seed]");
+            return;
+        }
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : System.currentTimeMillis();
+        final String[] size = args[0].split("x");
+        final WorldMap map = size.length == 2 && size[0].matches("\\d+") && size[1].matches("\\d+")
+                ? WorldMap.generate(Integer.parseInt(size[0]), Integer.parseInt(size[1]), new Random(seed))
+                : WorldMap.load(Paths.get(args[0]));
+
+        final long start = System.nanoTime();
+        final WorldSnapshot snapshot = of(map);
+        snapshot.write(Paths.get(args[1]));
+        System.out.println("Wrote " + Integer.toString(snapshot.getSize()) + " places ("
+                + Long.toString(Files.size(Paths.get(args[1]))) + " bytes) in "
+                + String.format("%.1f", (System.nanoTime() - start) / 1e9) + " s");
+    }
+
+    private final int _width;
+    private final int _height;
+    private final int _maxClients;
+    private final IntBuffer _towns;
+    private final CharBuffer _states;
+    private final ShortBuffer _walls;
+    private final IntBuffer _neighborOffsets;
+    private final IntBuffer _neighbors;
+    private final IntBuffer _nextHops;
+    private final IntBuffer _distances;
+    private final ByteBuffer _mapText;
+    private WorldMap _map;
+    private PathTable.Rows _pathRows;
+
+    static final int MAGIC = 0x53575854;
+    static final int VERSION = 1;
+
+    /**
+     * The bytes of the header: nine ints.
+     */
+    private static final int HEADER_BYTES = 36;
+
+    /**
+     * The moves to the neighbours of a place in the order they are kept:
+     * above, left, right and below.
+     */
+    private static final int[][] MOVES = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};
+}